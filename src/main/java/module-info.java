@@ -1,6 +1,9 @@
 module ph.edu.dlsu.lbycpei.chessapp {
     requires javafx.controls;
     requires javafx.media;
+    requires java.management;
+    requires jdk.jfr;
+    requires static jdk.incubator.vector;
 
     exports ph.edu.dlsu.lbycpei.chessapp;
     exports ph.edu.dlsu.lbycpei.chessapp.controller;
@@ -2,21 +2,92 @@ package ph.edu.dlsu.lbycpei.chessapp;
 
 import javafx.application.Application;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
 import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
 import ph.edu.dlsu.lbycpei.chessapp.controller.ChessController;
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.EngineMonitor;
+import ph.edu.dlsu.lbycpei.chessapp.model.EngineScheduler;
+import ph.edu.dlsu.lbycpei.chessapp.model.EvaluationParameters;
+import ph.edu.dlsu.lbycpei.chessapp.model.GameJournal;
+import ph.edu.dlsu.lbycpei.chessapp.model.LearningFile;
+import ph.edu.dlsu.lbycpei.chessapp.model.NnueNetwork;
 import ph.edu.dlsu.lbycpei.chessapp.utils.BackgroundMusicManager;
+import ph.edu.dlsu.lbycpei.chessapp.utils.Trace;
 
 // ChessApp.java
 public class ChessApp extends Application {
 
     private BackgroundMusicManager musicManager;
+    private LearningFile learningFile;
+    private GameJournal gameJournal;
 
     @Override
     public void start(Stage primaryStage) {
+        // Tuned evaluation terms must be in place before the controller creates its board
+        loadEvaluationParameters();
         ChessController controller = new ChessController();
+
+        // Expose engine search counters over JMX (e.g. for JConsole), one per engine worker
+        EngineScheduler scheduler = EngineScheduler.getDefault();
+        List<EasyChessAI> engines = scheduler.getEngines();
+        for (int i = 0; i < engines.size(); i++) {
+            EngineMonitor.register(engines.get(i), "worker-" + (i + 1));
+        }
+        scheduler.registerMBean("default");
+
+        // Reload positions the engine searched deeply in earlier sessions, and keep adding to them.
+        // The workers share one hash table, so loading it once serves them all; the analysis
+        // engine has a table of its own
+        try {
+            learningFile = LearningFile.open(Path.of(System.getProperty("user.home"), ".chessapp", "learning.bin"));
+            learningFile.loadInto(engines.get(0).getTranspositionTable());
+            learningFile.loadInto(controller.getAnalysis().getEngine().getTranspositionTable());
+            configureEngines(controller, engine -> engine.setLearningFile(learningFile));
+        } catch (IOException e) {
+            System.err.println("Engine learning disabled: " + e.getMessage());
+        }
+
+        // Evaluate with a neural network instead of the hand-crafted terms, if one is given
+        String networkPath = System.getProperty("chess.nnue");
+        if (networkPath != null) {
+            try {
+                NnueNetwork network = NnueNetwork.load(Path.of(networkPath));
+                configureEngines(controller, engine -> engine.setNetwork(network));
+            } catch (IOException e) {
+                System.err.println("Failed to load network, using hand-crafted evaluation: " + e.getMessage());
+            }
+        }
+
+        // Pick up the game that was in progress when the application last closed or crashed
+        try {
+            gameJournal = GameJournal.open(Path.of(System.getProperty("user.home"), ".chessapp", "game.journal"));
+            controller.resume(gameJournal);
+        } catch (IOException e) {
+            System.err.println("Game journal disabled: " + e.getMessage());
+        }
+
         Scene scene = new Scene(controller.getView(), 840, 880);
         scene.getStylesheets().add(getClass().getResource("/styles/chess.css").toExternalForm());
 
+        // With -Dchess.trace=true, F12 prints the trace so far and starts a new one, and
+        // whatever is left is printed on exit
+        if (Trace.ENABLED) {
+            scene.setOnKeyPressed(e -> {
+                if (e.getCode() == KeyCode.F12) {
+                    Trace.dump(System.err);
+                    Trace.clear();
+                }
+            });
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> Trace.dump(System.err), "trace-dump"));
+        }
+
         // Setup background sound: Initialize music manager
         musicManager = BackgroundMusicManager.getInstance();
         // Load background music (place your music files in src/main/resources/audio/)
@@ -30,10 +101,49 @@ public class ChessApp extends Application {
 
         primaryStage.setOnCloseRequest(e -> {
             musicManager.dispose(); // Cleanup resources
+            closeLearningFile(controller);
+            closeGameJournal();
         });
         primaryStage.show();
     }
 
+    private void loadEvaluationParameters() {
+        String configured = System.getProperty("chess.params");
+        Path path = configured != null ? Path.of(configured)
+                : Path.of(System.getProperty("user.home"), ".chessapp", "evaluation.params");
+        if (configured == null && !Files.exists(path)) return;
+        try {
+            EvaluationParameters.set(EvaluationParameters.load(path));
+        } catch (IOException e) {
+            System.err.println("Failed to load evaluation parameters, using defaults: " + e.getMessage());
+        }
+    }
+
+    // The scheduler's workers and the analysis panel each have their own engines
+    private static void configureEngines(ChessController controller, Consumer<EasyChessAI> configuration) {
+        EngineScheduler.getDefault().configureEngines(configuration);
+        controller.getAnalysis().configureEngine(configuration);
+    }
+
+    private void closeLearningFile(ChessController controller) {
+        if (learningFile == null) return;
+        configureEngines(controller, engine -> engine.setLearningFile(null));
+        try {
+            learningFile.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close learning file: " + e.getMessage());
+        }
+    }
+
+    private void closeGameJournal() {
+        if (gameJournal == null) return;
+        try {
+            gameJournal.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close game journal: " + e.getMessage());
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
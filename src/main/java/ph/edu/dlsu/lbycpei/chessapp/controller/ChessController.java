@@ -1,16 +1,24 @@
 package ph.edu.dlsu.lbycpei.chessapp.controller;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
+import javafx.util.Duration;
 import ph.edu.dlsu.lbycpei.chessapp.model.ChessBoard;
 import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.EngineScheduler;
+import ph.edu.dlsu.lbycpei.chessapp.model.GameBroadcaster;
+import ph.edu.dlsu.lbycpei.chessapp.model.GameJournal;
 import ph.edu.dlsu.lbycpei.chessapp.model.GameLogic;
+import ph.edu.dlsu.lbycpei.chessapp.model.MoveGenerator;
 import ph.edu.dlsu.lbycpei.chessapp.model.pieces.*;
 import ph.edu.dlsu.lbycpei.chessapp.view.AppView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 
 public class ChessController {
@@ -25,12 +33,29 @@ public class ChessController {
 
     private final int AI_COLOR = ChessPiece.BLACK;
     private final boolean AI_ENABLED = false;
+    private final long AI_TIME_BUDGET = 5000;
+    private final long AI_RETRY_MILLIS = 250;
+    private final long AI_RETRY_MAX_MILLIS = 4000;
     private boolean aiThinking = false;
+    private PauseTransition aiRetry; // waiting to resubmit a search the workers refused
+
+    // Searches run on the shared engine workers, queued fairly with any other games
+    private final EngineScheduler.GameQueue aiQueue = EngineScheduler.getDefault().openGame("board", AI_TIME_BUDGET);
+
+    private final LiveAnalysis analysis;
+
+    // Spectators follow the game here; the view is still updated directly
+    private final GameBroadcaster broadcaster;
+
+    // Moves are recorded here once a journal is attached, to resume after a restart
+    private GameJournal journal;
 
     // Constructor
     public ChessController() {
         board = new ChessBoard();
         view = new AppView();
+        broadcaster = new GameBroadcaster(1024, board.toFen());
+        analysis = new LiveAnalysis(text -> view.getAnalysisText().setText(text));
         view.updateBoard(board);
         setupEventHandlers();
         updateStatus();
@@ -40,9 +65,79 @@ public class ChessController {
     private void setupEventHandlers() {
         view.getReplayButton().setOnAction(e -> resetGame());
         view.getBoard().setOnMouseClicked(this::handleMouseClick);
+        view.getAnalysisButton().selectedProperty().addListener((obs, wasOn, on) -> {
+            if (on) {
+                analysis.start();
+                refreshAnalysis();
+            } else {
+                analysis.stop();
+            }
+        });
+    }
+
+    // Restart the live analysis on the current position, if it is switched on
+    private void refreshAnalysis() {
+        if (!analysis.isRunning()) return;
+        if (gameOver) {
+            analysis.clear();
+        } else {
+            analysis.analyze(createBoardCopy(board), currentPlayer);
+        }
+    }
+
+    /**
+     * Replays the game recorded in a journal onto the board and records further moves in
+     * it. Replay stops at the first move that is not legal, e.g. because the journal was
+     * written by an incompatible version, and the journal is rewritten to match.
+     */
+    public void resume(GameJournal journal) {
+        List<GameJournal.Entry> recorded = journal.getRestoredGame();
+        int replayed = 0;
+        for (GameJournal.Entry entry : recorded) {
+            if (gameOver || !isLegalMove(entry)) break;
+            // Played like an engine move: no selection, just the move and its bookkeeping
+            executeAIMove(board.pieceAt(entry.fromRow(), entry.fromCol()), entry.toRow(), entry.toCol());
+            replayed++;
+        }
+
+        if (replayed < recorded.size()) {
+            GameJournal.Entry bad = recorded.get(replayed);
+            String message = "Saved game restored up to move " + (replayed / 2 + 1) + " only: "
+                    + getSquareNotation(bad.fromRow(), bad.fromCol()) + "-" + getSquareNotation(bad.toRow(), bad.toCol())
+                    + " is not a legal move there";
+            System.err.println(message);
+            journal.startNewGame();
+            for (GameJournal.Entry entry : recorded.subList(0, replayed)) {
+                journal.append(entry.fromRow(), entry.fromCol(), entry.toRow(), entry.toCol());
+            }
+            view.getStatusText().setText(message);
+        }
+        this.journal = journal;
+
+        if (AI_ENABLED && !gameOver && currentPlayer == AI_COLOR) {
+            scheduleAIMove();
+        }
+    }
+
+    // Checked with the move generator on a copy, as GameLogic.canMakeMove plays castles itself
+    private boolean isLegalMove(GameJournal.Entry entry) {
+        for (EasyChessAI.Move move : MoveGenerator.generateLegalMoves(createBoardCopy(board), currentPlayer)) {
+            if (move.fromRow == entry.fromRow() && move.fromCol == entry.fromCol()
+                    && move.toRow == entry.toRow() && move.toCol == entry.toCol()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void resetGame() {
+        // Abandon any search still queued or running for the old game
+        aiQueue.cancel();
+        if (aiRetry != null) {
+            aiRetry.stop();
+            aiRetry = null;
+        }
+
         board = new ChessBoard();
         currentPlayer = ChessPiece.WHITE;
         selectedPiece = null;
@@ -56,7 +151,10 @@ public class ChessController {
         view.getMoveHistory().clear();
         view.getBoard().clearSelection();
         view.updateBoard(board);
+        broadcaster.publishNewGame(board.toFen());
+        if (journal != null) journal.startNewGame();
         updateStatus();
+        refreshAnalysis();
     }
 
     private void handleMouseClick(MouseEvent event) {
@@ -97,7 +195,10 @@ public class ChessController {
             }
         } else {
             // Second click - attempt move
-            if (row == selectedPiece.getRow() && col == selectedPiece.getCol()) {
+            // Saved first: GameLogic.canMakeMove already moves the king when it validates a castle
+            int fromRow = selectedPiece.getRow();
+            int fromCol = selectedPiece.getCol();
+            if (row == fromRow && col == fromCol) {
                 selectedPiece = null;
                 view.getBoard().clearSelection();
                 view.getBoard().clearHighlights(); // clear ADDED
@@ -106,9 +207,9 @@ public class ChessController {
                 if (GameLogic.isInCheck(board, currentPlayer)) {
                     if (moveResolvesCheck(selectedPiece, row, col)) {
                         if (!IS_OFFICIAL_NOTATION) {
-                            makeMove(selectedPiece, row, col);
+                            makeMove(selectedPiece, fromRow, fromCol, row, col);
                         } else {
-                            makeOfficialMove(selectedPiece, row, col);
+                            makeOfficialMove(selectedPiece, fromRow, fromCol, row, col);
                         }
                     } else {
                         // Move doesn't resolve check - deselect
@@ -118,9 +219,9 @@ public class ChessController {
                 } else {
                     // Not in check - proceed with move
                     if (!IS_OFFICIAL_NOTATION) {
-                        makeMove(selectedPiece, row, col);
+                        makeMove(selectedPiece, fromRow, fromCol, row, col);
                     } else {
-                        makeOfficialMove(selectedPiece, row, col);
+                        makeOfficialMove(selectedPiece, fromRow, fromCol, row, col);
                     }
                     if (AI_ENABLED && !gameOver && currentPlayer == AI_COLOR) {
                         scheduleAIMove();
@@ -159,6 +260,7 @@ public class ChessController {
         ChessPiece capturedPiece = board.pieceAt(newRow, newCol);
         int originalRow = piece.getRow();
         int originalCol = piece.getCol();
+        boolean originalHasMoved = piece.hasMoved();
 
         // Handle special moves
         boolean isCastling = piece instanceof King && Math.abs(newCol - originalCol) == 2;
@@ -197,6 +299,7 @@ public class ChessController {
         // Undo the move
         board.removePiece(newRow, newCol);
         piece.moveTo(originalRow, originalCol);
+        piece.setHasMoved(originalHasMoved);
         board.addPiece(piece);
         if (capturedPiece != null) {
             board.addPiece(capturedPiece);
@@ -206,6 +309,7 @@ public class ChessController {
         if (isCastling && movedRook != null) {
             board.removePiece(newRow, rookNewCol);
             movedRook.moveTo(newRow, rookOriginalCol);
+            movedRook.setHasMoved(false);
             board.addPiece(movedRook);
         }
 
@@ -220,44 +324,49 @@ public class ChessController {
     private void scheduleAIMove() {
         aiThinking = true;
         updateStatus();
+        submitAIMove(AI_RETRY_MILLIS);
+    }
 
-        Thread aiThread = new Thread(() -> {
-            try {
-                Thread.sleep(500); // AI Thinking time
+    private void submitAIMove(long retryMillis) {
+        ChessBoard searchedBoard = board;
+        CompletableFuture<EasyChessAI.Move> search;
+        try {
+            search = aiQueue.submit(createBoardCopy(board), AI_COLOR, 4);
+        } catch (RejectedExecutionException e) {
+            // Every engine worker is backed up; try again later, waiting longer each time
+            view.getStatusText().setText("AI is waiting for a free engine...");
+            aiRetry = new PauseTransition(Duration.millis(retryMillis));
+            aiRetry.setOnFinished(event -> {
+                aiRetry = null;
+                if (board == searchedBoard) {
+                    submitAIMove(Math.min(retryMillis * 2, AI_RETRY_MAX_MILLIS));
+                }
+            });
+            aiRetry.play();
+            return;
+        }
 
-                ChessBoard boardCopy = createBoardCopy(board);
-                EasyChessAI.Move aiMove = EasyChessAI.getBestMove(boardCopy, AI_COLOR, 4, 5000);
+        search.whenComplete((aiMove, error) -> Platform.runLater(() -> {
+            // The game was reset while the engine was thinking
+            if (board != searchedBoard) return;
 
-                if (aiMove != null) {
-                    Platform.runLater(() -> {
-                        // FIX: Find the actual piece on the real board
-                        ChessPiece actualPiece = board.pieceAt(aiMove.fromRow, aiMove.fromCol);
-                        if (actualPiece != null && actualPiece.getColor() == AI_COLOR) {
-                            executeAIMove(actualPiece, aiMove.toRow, aiMove.toCol);
-                        }
-                        aiThinking = false;
-                        updateStatus();
-                    });
-                } else {
-                    Platform.runLater(() -> {
-                        aiThinking = false;
-                        updateStatus();
-                    });
+            if (aiMove != null) {
+                // FIX: Find the actual piece on the real board
+                ChessPiece actualPiece = board.pieceAt(aiMove.fromRow, aiMove.fromCol);
+                if (actualPiece != null && actualPiece.getColor() == AI_COLOR) {
+                    executeAIMove(actualPiece, aiMove.toRow, aiMove.toCol);
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
             }
-        });
-
-        aiThread.setDaemon(true);
-        aiThread.start();
+            aiThinking = false;
+            updateStatus();
+        }));
     }
 
     private void executeAIMove(ChessPiece piece, int newRow, int newCol) {
         if (!IS_OFFICIAL_NOTATION) {
-            makeMove(piece, newRow, newCol);
+            makeMove(piece, piece.getRow(), piece.getCol(), newRow, newCol);
         } else {
-            makeOfficialMove(piece, newRow, newCol);
+            makeOfficialMove(piece, piece.getRow(), piece.getCol(), newRow, newCol);
         }
     }
 
@@ -274,11 +383,12 @@ public class ChessController {
                 }
             }
         }
+        copy.setEnPassantSquare(GameLogic.getEnPassantSquare());
         return copy;
     }
 
     private ChessPiece copyPiece(ChessPiece original) {
-        return switch (original.getType()) {
+        ChessPiece copy = switch (original.getType()) {
             case PAWN -> new Pawn(original.getRow(), original.getCol(), original.getColor());
             case ROOK -> new Rook(original.getRow(), original.getCol(), original.getColor());
             case KNIGHT -> new Knight(original.getRow(), original.getCol(), original.getColor());
@@ -287,16 +397,19 @@ public class ChessController {
             case KING -> new King(original.getRow(), original.getCol(), original.getColor());
             default -> throw new IllegalArgumentException("Unknown piece type: " + original.getType());
         };
+        // Castling and double pawn pushes depend on the moved flags
+        copy.setHasMoved(original.hasMoved());
+        return copy;
     }
 
-    private void makeMove(ChessPiece piece, int newRow, int newCol) {
-        int oldRow = piece.getRow();
-        int oldCol = piece.getCol();
+    private void makeMove(ChessPiece piece, int oldRow, int oldCol, int newRow, int newCol) {
         ChessPiece capturedPiece = board.pieceAt(newRow, newCol);
+        if (capturedPiece == piece) capturedPiece = null; // a castle the click already played
 
         board.removePiece(oldRow, oldCol);
         piece.moveTo(newRow, newCol);
         board.addPiece(piece);
+        if (journal != null) journal.append(oldRow, oldCol, newRow, newCol);
 
         String moveNotation = createMoveNotation(piece, oldRow, oldCol, newRow, newCol, capturedPiece);
         view.getMoveHistory().appendText(moveNotation + "\n");
@@ -307,15 +420,18 @@ public class ChessController {
         currentPlayer = (currentPlayer == ChessPiece.WHITE) ? ChessPiece.BLACK : ChessPiece.WHITE;
 
         view.updateBoard(board);
+        publishMove(moveNotation);
         updateStatus();
 
         checkGameState();
+        refreshAnalysis();
     }
 
-    private void makeOfficialMove(ChessPiece piece, int newRow, int newCol) {
-        int oldRow = piece.getRow();
-        int oldCol = piece.getCol();
+    // oldRow and oldCol are passed in because a castle may already have been played by
+    // GameLogic.canMakeMove, leaving the king on its new square
+    private void makeOfficialMove(ChessPiece piece, int oldRow, int oldCol, int newRow, int newCol) {
         ChessPiece capturedPiece = board.pieceAt(newRow, newCol);
+        if (capturedPiece == piece) capturedPiece = null;
 
         boolean isCastling = false;
         boolean isEnPassant = false;
@@ -327,9 +443,11 @@ public class ChessController {
             isEnPassant = true;
         }
 
-        // Handle castling
+        // Handle castling, unless validating the click already did
         if (isCastling) {
-            performCastling((King) piece, newRow, newCol);
+            if (piece.getCol() != newCol) {
+                performCastling((King) piece, newRow, newCol);
+            }
         } else if (isEnPassant) {
             GameLogic.performEnPassant(board, (Pawn) piece, newRow, newCol, oldRow, oldCol);
         } else {
@@ -344,6 +462,8 @@ public class ChessController {
 
         }
 
+        if (journal != null) journal.append(oldRow, oldCol, newRow, newCol);
+
         // Update castling flags
         GameLogic.updateCastlingFlags(piece, oldRow, oldCol);
 
@@ -363,10 +483,20 @@ public class ChessController {
 
         // Update display
         view.updateBoard(board);
+        publishMove(moveNotation);
         updateStatus();
 
         // Check game state
         checkGameState();
+        refreshAnalysis();
+    }
+
+    // The board only tracks pieces, so fill in the rest of the position for the FEN
+    private void publishMove(String moveNotation) {
+        board.setSideToMove(currentPlayer);
+        board.setEnPassantSquare(GameLogic.getEnPassantSquare());
+        board.setFullmoveNumber(moveNumber);
+        broadcaster.publishMove(moveNotation, board.toFen());
     }
 
     // ADDED
@@ -600,4 +730,18 @@ public class ChessController {
     public BorderPane getView() {
         return view.getRoot();
     }
+
+    /**
+     * Returns the live analysis panel's engine driver, e.g. to configure its engine.
+     */
+    public LiveAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Returns the stream of moves of the game on the board, for spectators to subscribe to.
+     */
+    public GameBroadcaster getBroadcaster() {
+        return broadcaster;
+    }
 }
\ No newline at end of file
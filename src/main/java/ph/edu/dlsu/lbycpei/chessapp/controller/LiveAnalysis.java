@@ -0,0 +1,194 @@
+package ph.edu.dlsu.lbycpei.chessapp.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+import ph.edu.dlsu.lbycpei.chessapp.model.ChessBoard;
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.SearchInfo;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an engine analysing the current position on a background thread and shows its
+ * depth, score and principal variation. The engine reports every completed iteration,
+ * which can be many per second at low depths, so only the newest report is kept and
+ * the JavaFX thread picks it up at a fixed rate.
+ */
+public class LiveAnalysis {
+
+    private static final int UPDATES_PER_SECOND = 4;
+    private static final int MAX_DEPTH = 30;
+    private static final long TIME_LIMIT = 10 * 60 * 1000L;
+    private static final int PV_MOVES_SHOWN = 8;
+
+    private static class Request {
+        final ChessBoard board;
+        final int color;
+        final long generation;
+
+        Request(ChessBoard board, int color, long generation) {
+            this.board = board;
+            this.color = color;
+            this.generation = generation;
+        }
+    }
+
+    // A separate engine, so analysis never shares search state with the AI player; it
+    // searches holding its own lock, as the scheduler's workers do
+    private final EasyChessAI engine = new EasyChessAI(1 << 20);
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<String> latestText = new AtomicReference<>();
+    private final Consumer<String> display;
+    private final Timeline refresher;
+    private volatile Request currentRequest;
+    private Request lastRequest; // the position shown, for restarting after reconfiguring
+    // Started once and kept: turning analysis off only leaves it waiting for requests, so
+    // quick toggling can never leave two threads searching on the one engine
+    private Thread worker;
+    private boolean running;
+
+    /**
+     * @param display called on the JavaFX thread with each line of text to show
+     */
+    public LiveAnalysis(Consumer<String> display) {
+        this.display = display;
+        engine.addInfoListener(this::publish);
+        refresher = new Timeline(new KeyFrame(Duration.millis(1000.0 / UPDATES_PER_SECOND), e -> {
+            String text = latestText.getAndSet(null);
+            if (text != null) {
+                display.accept(text);
+            }
+        }));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    /**
+     * Returns the analysis engine, e.g. to load a hash table before analysis starts.
+     * Searching on it or changing its settings directly would race with the analysis
+     * thread; use {@link #configureEngine}.
+     */
+    public EasyChessAI getEngine() {
+        return engine;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        if (worker == null) {
+            worker = new Thread(this::run, "live-analysis");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        refresher.play();
+    }
+
+    public void stop() {
+        if (!running) return;
+        clear();
+        running = false;
+        refresher.stop();
+    }
+
+    /**
+     * Restarts the analysis on a new position. Must be called on the JavaFX thread.
+     *
+     * @param board a copy of the position that the analysis may keep using
+     * @param color the side to move
+     */
+    public void analyze(ChessBoard board, int color) {
+        if (!running) return;
+        long next = generation.incrementAndGet();
+        // Stop first, so the flag cannot reach the search started for the new request
+        engine.stop();
+        requests.clear();
+        lastRequest = new Request(board, color, next);
+        requests.offer(lastRequest);
+        latestText.set(null);
+        display.accept("Analysing...");
+    }
+
+    /**
+     * Applies a setting, such as an evaluation network or a learning file, to the
+     * analysis engine. A search in progress is stopped first and restarted on the same
+     * position afterwards. Must be called on the JavaFX thread.
+     */
+    public void configureEngine(Consumer<EasyChessAI> configuration) {
+        Request request = lastRequest;
+        generation.incrementAndGet();
+        engine.stop();
+        requests.clear();
+        synchronized (engine) {
+            configuration.accept(engine);
+        }
+        if (running && request != null) {
+            analyze(request.board, request.color);
+        }
+    }
+
+    /**
+     * Stops analysing without starting on another position, e.g. once the game is over.
+     */
+    public void clear() {
+        lastRequest = null;
+        generation.incrementAndGet();
+        engine.stop();
+        requests.clear();
+        latestText.set(null);
+        display.accept("");
+    }
+
+    private void run() {
+        while (true) {
+            Request request;
+            try {
+                request = requests.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (request.generation != generation.get()) continue;
+            currentRequest = request;
+            synchronized (engine) {
+                engine.findBestMove(request.board, request.color, MAX_DEPTH, TIME_LIMIT);
+            }
+        }
+    }
+
+    // Runs on the analysis thread after each completed iteration
+    private void publish(SearchInfo info) {
+        Request request = currentRequest;
+        if (request == null || request.generation != generation.get()) {
+            // The position changed before the old search noticed the stop
+            engine.stop();
+            return;
+        }
+        latestText.set(format(info, request.color));
+    }
+
+    private static String format(SearchInfo info, int color) {
+        // Scores are shown from white's point of view, in pawns
+        int score = color == ChessPiece.WHITE ? info.getScore() : -info.getScore();
+        int mateDistance = EasyChessAI.getMateDistance(score);
+        String scoreText = mateDistance != 0 ? "#" + (mateDistance > 0 ? "" : "-") + (Math.abs(mateDistance) + 1) / 2
+                : String.format("%+.2f", score / 100.0);
+
+        StringBuilder text = new StringBuilder("Depth ").append(info.getDepth())
+                .append("  ").append(scoreText).append(" ");
+        List<EasyChessAI.Move> pv = info.getPrincipalVariation();
+        for (int i = 0; i < Math.min(pv.size(), PV_MOVES_SHOWN); i++) {
+            text.append(' ').append(pv.get(i));
+        }
+        return text.toString();
+    }
+}
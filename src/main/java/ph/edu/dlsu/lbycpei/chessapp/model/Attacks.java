@@ -0,0 +1,184 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.PieceType;
+
+/**
+ * Computes pseudo-legal attack sets as 64-bit bitboards, where bit (row * 8 + col)
+ * stands for one square. Attack sets ignore pins and checks, which makes them cheap
+ * enough for evaluation: nothing is allocated and no trial moves are played on the board.
+ */
+public final class Attacks {
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            KNIGHT_ATTACKS[square] = stepAttacks(row, col, KNIGHT_STEPS);
+            KING_ATTACKS[square] = stepAttacks(row, col, KING_STEPS);
+            // White pawns capture towards row 0, black pawns towards row 7
+            PAWN_ATTACKS[ChessPiece.WHITE][square] = stepAttacks(row, col, new int[][]{{-1, -1}, {-1, 1}});
+            PAWN_ATTACKS[ChessPiece.BLACK][square] = stepAttacks(row, col, new int[][]{{1, -1}, {1, 1}});
+        }
+    }
+
+    private static long stepAttacks(int row, int col, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= 1L << (r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        int row = square / 8;
+        int col = square % 8;
+        for (int[] dir : directions) {
+            int r = row + dir[0];
+            int c = col + dir[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long bit = 1L << (r * 8 + c);
+                attacks |= bit;
+                // The ray stops at the first occupied square, which is still attacked
+                if ((occupied & bit) != 0) break;
+                r += dir[0];
+                c += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return slidingAttacks(square, occupied, ROOK_DIRECTIONS);
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return slidingAttacks(square, occupied, BISHOP_DIRECTIONS);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Returns the squares a piece of the given type and color attacks from a square.
+     *
+     * @param type     the piece type
+     * @param color    the piece color (only matters for pawns)
+     * @param square   the square the piece stands on
+     * @param occupied all occupied squares, used to stop sliding rays
+     * @return the attacked squares, including squares held by either side
+     */
+    public static long attacksFrom(PieceType type, int color, int square, long occupied) {
+        return switch (type) {
+            case PAWN -> PAWN_ATTACKS[color][square];
+            case KNIGHT -> KNIGHT_ATTACKS[square];
+            case BISHOP -> bishopAttacks(square, occupied);
+            case ROOK -> rookAttacks(square, occupied);
+            case QUEEN -> queenAttacks(square, occupied);
+            case KING -> KING_ATTACKS[square];
+        };
+    }
+
+    /**
+     * Returns every square attacked by the given color's pawns.
+     */
+    public static long pawnAttacks(ChessBoard board, int color) {
+        long attacks = 0L;
+        long pawns = board.getPieces(color, PieceType.PAWN);
+        while (pawns != 0) {
+            attacks |= PAWN_ATTACKS[color][Long.numberOfTrailingZeros(pawns)];
+            pawns &= pawns - 1;
+        }
+        return attacks;
+    }
+
+    /**
+     * Returns the pieces of both colors attacking a square, given an occupancy that may
+     * have pieces lifted off it (so sliders behind them show up as x-ray attackers).
+     *
+     * @param board    the board supplying piece locations
+     * @param square   the target square (row * 8 + col)
+     * @param occupied the occupancy used to block sliding rays
+     * @return a bitboard of attacking pieces; callers mask it with {@code occupied}
+     */
+    public static long attackersTo(ChessBoard board, int square, long occupied) {
+        long queens = board.getPieces(ChessPiece.WHITE, PieceType.QUEEN) | board.getPieces(ChessPiece.BLACK, PieceType.QUEEN);
+        long diagonal = board.getPieces(ChessPiece.WHITE, PieceType.BISHOP) | board.getPieces(ChessPiece.BLACK, PieceType.BISHOP) | queens;
+        long straight = board.getPieces(ChessPiece.WHITE, PieceType.ROOK) | board.getPieces(ChessPiece.BLACK, PieceType.ROOK) | queens;
+        long knights = board.getPieces(ChessPiece.WHITE, PieceType.KNIGHT) | board.getPieces(ChessPiece.BLACK, PieceType.KNIGHT);
+        long kings = board.getPieces(ChessPiece.WHITE, PieceType.KING) | board.getPieces(ChessPiece.BLACK, PieceType.KING);
+
+        return (PAWN_ATTACKS[ChessPiece.BLACK][square] & board.getPieces(ChessPiece.WHITE, PieceType.PAWN))
+                | (PAWN_ATTACKS[ChessPiece.WHITE][square] & board.getPieces(ChessPiece.BLACK, PieceType.PAWN))
+                | (KNIGHT_ATTACKS[square] & knights)
+                | (KING_ATTACKS[square] & kings)
+                | (bishopAttacks(square, occupied) & diagonal)
+                | (rookAttacks(square, occupied) & straight);
+    }
+
+    /**
+     * Checks whether any piece of the given color attacks a square.
+     *
+     * @param board   the board to inspect
+     * @param square  the target square (row * 8 + col)
+     * @param byColor the attacking color
+     * @return true if at least one piece of that color attacks the square
+     */
+    public static boolean isSquareAttacked(ChessBoard board, int square, int byColor) {
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        int defender = byColor == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+
+        // A pawn attacks the square exactly when a defending pawn there would attack it back
+        if ((PAWN_ATTACKS[defender][square] & board.getPieces(byColor, PieceType.PAWN)) != 0) return true;
+        if ((KNIGHT_ATTACKS[square] & board.getPieces(byColor, PieceType.KNIGHT)) != 0) return true;
+        if ((KING_ATTACKS[square] & board.getPieces(byColor, PieceType.KING)) != 0) return true;
+
+        long queens = board.getPieces(byColor, PieceType.QUEEN);
+        long diagonal = board.getPieces(byColor, PieceType.BISHOP) | queens;
+        if (diagonal != 0 && (bishopAttacks(square, occupied) & diagonal) != 0) return true;
+        long straight = board.getPieces(byColor, PieceType.ROOK) | queens;
+        return straight != 0 && (rookAttacks(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * Checks whether the given color's king is attacked, without the trial moves
+     * {@link GameLogic#isInCheck} performs.
+     */
+    public static boolean isInCheck(ChessBoard board, int color) {
+        int kingSquare = board.getKingSquare(color);
+        if (kingSquare < 0) return false;
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        return isSquareAttacked(board, kingSquare, opponent);
+    }
+
+    private Attacks() {
+        // Not meant for instantiation
+    }
+}
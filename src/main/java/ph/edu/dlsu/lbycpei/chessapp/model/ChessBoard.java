@@ -18,6 +18,72 @@ public class ChessBoard implements ChessBoardInterface {
      */
     private ChessPiece[][] board;
 
+    /**
+     * Running material totals per color ([WHITE], [BLACK]), kept in sync by
+     * {@link #addPiece} and {@link #removePiece} so evaluation never has to
+     * rescan the board.
+     */
+    private final int[] material = new int[2];
+
+    /**
+     * Running piece-square totals per color, maintained alongside {@link #material}.
+     */
+    private final int[] positional = new int[2];
+
+    /**
+     * Number of pieces on the board per color.
+     */
+    private final int[] pieceCount = new int[2];
+
+    /**
+     * Occupancy bitboards per color and piece type, indexed [color][type code].
+     * Bit (row * 8 + col) is set when such a piece stands on that square.
+     */
+    private final long[][] pieceBits = new long[2][6];
+
+    /**
+     * Occupancy bitboards per color, the union of {@link #pieceBits} for that color.
+     */
+    private final long[] occupancy = new long[2];
+
+    /**
+     * Zobrist hash of the piece placement, updated incrementally.
+     */
+    private long zobristKey;
+
+    /**
+     * Zobrist hash of the pawns only, used to cache pawn structure evaluation.
+     */
+    private long pawnKey;
+
+    /**
+     * The square (row * 8 + col) a pawn may capture onto en passant, or -1 if
+     * the last move was not a double pawn push.
+     */
+    private int enPassantSquare = -1;
+
+    /**
+     * Neural network accumulator kept in step with the pieces, or null when the
+     * board is not being evaluated by a network.
+     */
+    private NnueAccumulator accumulator;
+
+    /**
+     * The color to move, as read from or written to FEN. Kept up to date by
+     * {@link Game}; the board itself does not change it when pieces move.
+     */
+    private int sideToMove = ChessPiece.WHITE;
+
+    /**
+     * Plies since the last capture or pawn move, for the fifty-move rule.
+     */
+    private int halfmoveClock;
+
+    /**
+     * The FEN move number, starting at 1 and incremented after each black move.
+     */
+    private int fullmoveNumber = 1;
+
     /**
      * Constructs a new ChessBoard and initializes it with pieces in their
      * standard starting positions.
@@ -53,7 +119,14 @@ public class ChessBoard implements ChessBoardInterface {
     @Override
     public void addPiece(ChessPiece piece) {
         if (piece != null) {
-            board[piece.getRow()][piece.getCol()] = piece;
+            int row = piece.getRow();
+            int col = piece.getCol();
+            ChessPiece replaced = board[row][col];
+            if (replaced != null) {
+                untrack(replaced, row, col);
+            }
+            board[row][col] = piece;
+            track(piece, row, col);
         }
     }
 
@@ -67,7 +140,11 @@ public class ChessBoard implements ChessBoardInterface {
     @Override
     public void removePiece(int row, int col) {
         if (row >= 0 && row < 8 && col >= 0 && col < 8) {
-            board[row][col] = null;
+            ChessPiece removed = board[row][col];
+            if (removed != null) {
+                untrack(removed, row, col);
+                board[row][col] = null;
+            }
         }
     }
 
@@ -124,6 +201,18 @@ public class ChessBoard implements ChessBoardInterface {
         for (ChessPiece[] row : board) {
             Arrays.fill(row, null);
         }
+        Arrays.fill(material, 0);
+        Arrays.fill(positional, 0);
+        Arrays.fill(pieceCount, 0);
+        Arrays.fill(pieceBits[ChessPiece.WHITE], 0L);
+        Arrays.fill(pieceBits[ChessPiece.BLACK], 0L);
+        Arrays.fill(occupancy, 0L);
+        zobristKey = 0L;
+        pawnKey = 0L;
+        enPassantSquare = -1;
+        if (accumulator != null) {
+            accumulator.refresh(this);
+        }
     }
 
 
@@ -140,7 +229,11 @@ public class ChessBoard implements ChessBoardInterface {
     public void setBoardFromArray(ChessPiece[][] pieces) {
         for (int i = 0; i < pieces.length; i++) {
             for (int j = 0; j < pieces[i].length; j++) {
-                board[i][j] = pieces[i][j];
+                removePiece(i, j);
+                if (pieces[i][j] != null) {
+                    board[i][j] = pieces[i][j];
+                    track(pieces[i][j], i, j);
+                }
             }
         }
     }
@@ -154,4 +247,237 @@ public class ChessBoard implements ChessBoardInterface {
         return isInBounds(row, col) && pieceAt(row, col) == null;
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the total material value of the given color's pieces.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     * @return the summed piece values, kept up to date on every board change
+     */
+    public int getMaterial(int color) {
+        return material[color];
+    }
+
+    /**
+     * Returns the total piece-square bonus of the given color's pieces.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     * @return the summed piece-square table values for that color
+     */
+    public int getPositional(int color) {
+        return positional[color];
+    }
+
+    /**
+     * Returns how many pieces of the given color are on the board.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     * @return the piece count for that color
+     */
+    public int getPieceCount(int color) {
+        return pieceCount[color];
+    }
+
+    /**
+     * Returns the squares occupied by the given color's pieces of one type.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     * @param type  the piece type
+     * @return a bitboard with bit (row * 8 + col) set for every such piece
+     */
+    public long getPieces(int color, PieceType type) {
+        return pieceBits[color][type.getCode()];
+    }
+
+    /**
+     * Returns the squares occupied by the given color.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     * @return a bitboard with bit (row * 8 + col) set for every piece of that color
+     */
+    public long getOccupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * Returns the square of the given color's king.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     * @return the king square as row * 8 + col, or -1 if there is no king
+     */
+    public int getKingSquare(int color) {
+        long king = pieceBits[color][PieceType.KING.getCode()];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Returns the Zobrist hash of the current piece placement.
+     *
+     * @return a key that changes whenever any piece is added or removed
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Returns the Zobrist hash of the pawns on the board.
+     *
+     * @return a key that only changes when a pawn is added or removed
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Returns the en passant capture square as row * 8 + col, or -1 if none.
+     *
+     * @return the en passant square index
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Sets the en passant capture square.
+     *
+     * @param square the square index (row * 8 + col) behind a pawn that just
+     *               advanced two squares, or -1 to clear it
+     */
+    public void setEnPassantSquare(int square) {
+        enPassantSquare = square;
+    }
+
+    /**
+     * Returns the color to move.
+     *
+     * @return ChessPiece.WHITE or ChessPiece.BLACK
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the color to move.
+     *
+     * @param color ChessPiece.WHITE or ChessPiece.BLACK
+     */
+    public void setSideToMove(int color) {
+        sideToMove = color;
+    }
+
+    /**
+     * Returns the number of plies since the last capture or pawn move.
+     *
+     * @return the halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Sets the number of plies since the last capture or pawn move.
+     *
+     * @param plies the halfmove clock
+     */
+    public void setHalfmoveClock(int plies) {
+        halfmoveClock = plies;
+    }
+
+    /**
+     * Returns the move number, which starts at 1 and grows after each black move.
+     *
+     * @return the fullmove number
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Sets the move number.
+     *
+     * @param number the fullmove number, at least 1
+     */
+    public void setFullmoveNumber(int number) {
+        fullmoveNumber = number;
+    }
+
+    /**
+     * Replaces the position with the one described by a FEN string. Castling rights
+     * are expressed through the kings' and rooks' moved flags.
+     *
+     * @param fen the position, e.g. {@link Fen#START_POSITION}
+     * @throws IllegalArgumentException if the string is not valid FEN; the board is
+     *                                  left unchanged in that case
+     */
+    public void loadFen(CharSequence fen) {
+        Fen.parse(fen, this);
+    }
+
+    /**
+     * Describes the position as a FEN string.
+     *
+     * @return the FEN of this board
+     */
+    public String toFen() {
+        return Fen.toFen(this);
+    }
+
+    /**
+     * Returns the attached network accumulator, or null if there is none.
+     *
+     * @return the accumulator updated by this board
+     */
+    public NnueAccumulator getAccumulator() {
+        return accumulator;
+    }
+
+    /**
+     * Attaches a network accumulator, bringing it up to date with the current
+     * pieces, or detaches the current one when given null.
+     *
+     * @param accumulator the accumulator to update on every piece change, or null
+     */
+    public void setAccumulator(NnueAccumulator accumulator) {
+        this.accumulator = accumulator;
+        if (accumulator != null) {
+            accumulator.refresh(this);
+        }
+    }
+
+    // Incremental bookkeeping for the evaluation totals
+    private void track(ChessPiece piece, int row, int col) {
+        int color = piece.getColor();
+        material[color] += EasyChessAI.getPieceValue(piece.getType());
+        positional[color] += EasyChessAI.getPositionalValue(piece, row, col);
+        pieceCount[color]++;
+        long bit = 1L << (row * 8 + col);
+        pieceBits[color][piece.getType().getCode()] |= bit;
+        occupancy[color] |= bit;
+        updateKeys(piece, row * 8 + col);
+        if (accumulator != null) {
+            accumulator.add(color, piece.getType().getCode(), row * 8 + col);
+        }
+    }
+
+    private void updateKeys(ChessPiece piece, int square) {
+        long key = Zobrist.pieceKey(piece.getColor(), piece.getType().getCode(), square);
+        zobristKey ^= key;
+        if (piece.getType() == PieceType.PAWN) {
+            pawnKey ^= key;
+        }
+    }
+
+    private void untrack(ChessPiece piece, int row, int col) {
+        int color = piece.getColor();
+        material[color] -= EasyChessAI.getPieceValue(piece.getType());
+        positional[color] -= EasyChessAI.getPositionalValue(piece, row, col);
+        pieceCount[color]--;
+        long bit = 1L << (row * 8 + col);
+        pieceBits[color][piece.getType().getCode()] &= ~bit;
+        occupancy[color] &= ~bit;
+        updateKeys(piece, row * 8 + col);
+        if (accumulator != null) {
+            accumulator.remove(color, piece.getType().getCode(), row * 8 + col);
+        }
+    }
+
+}
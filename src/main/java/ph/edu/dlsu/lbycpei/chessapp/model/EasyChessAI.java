@@ -1,15 +1,22 @@
 package ph.edu.dlsu.lbycpei.chessapp.model;
 
 import ph.edu.dlsu.lbycpei.chessapp.model.pieces.*;
+import ph.edu.dlsu.lbycpei.chessapp.utils.Trace;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class EasyChessAI {
-    private static final int MAX_DEPTH = 4;
     private static final int INFINITY = 1000000;
 
-    private static final int[] PIECE_VALUES = {
+    // Tunable evaluation terms are package-private so EvaluationParameters can load them
+    static final int[] PIECE_VALUES = {
             100,  // PAWN
             500,  // ROOK
             300,  // KNIGHT
@@ -18,7 +25,76 @@ public class EasyChessAI {
             10000 // KING
     };
 
-    private static final int[][] PAWN_TABLE = {
+    // Score per safe square attacked, indexed by PieceType code
+    static final int[] MOBILITY_WEIGHTS = {
+            0,  // PAWN
+            2,  // ROOK
+            4,  // KNIGHT
+            4,  // BISHOP
+            1,  // QUEEN
+            0   // KING
+    };
+
+    static int checkBonus = 50; // for giving check, and the same penalty for being in check
+
+    static final PieceType[] MOBILE_PIECES = {
+            PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN
+    };
+
+    // Pawn structure terms, cached per pawn configuration in each engine's pawn hash
+    private static final int DOUBLED_PAWN_PENALTY = 15;
+    private static final int ISOLATED_PAWN_PENALTY = 12;
+    private static final int BACKWARD_PAWN_PENALTY = 8;
+    private static final int[] PASSED_PAWN_BONUS = {0, 5, 10, 20, 35, 60, 100, 0}; // by ranks advanced
+    private static final int SHIELD_PAWN_BONUS = 10;          // shield pawn still on its starting rank
+    private static final int ADVANCED_SHIELD_PAWN_BONUS = 5;  // shield pawn one rank forward
+
+    private static final long[] FILE_MASKS = new long[8];
+    private static final long[] ADJACENT_FILE_MASKS = new long[8];
+    private static final long[][] FORWARD_MASKS = new long[2][8]; // rows strictly ahead, by color and row
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILE_MASKS[file] = 0x0101010101010101L << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILE_MASKS[file] = (file > 0 ? FILE_MASKS[file - 1] : 0L) | (file < 7 ? FILE_MASKS[file + 1] : 0L);
+        }
+        for (int row = 0; row < 8; row++) {
+            // White advances towards row 0, black towards row 7
+            FORWARD_MASKS[ChessPiece.WHITE][row] = (1L << (8 * row)) - 1;
+            FORWARD_MASKS[ChessPiece.BLACK][row] = row == 7 ? 0L : -1L << (8 * (row + 1));
+        }
+    }
+
+    private static final int PAWN_HASH_ENTRIES = 1 << 14;
+
+    // Move ordering and quiescence pruning
+    private static final int GOOD_CAPTURE_SCORE = 10000;
+    private static final int MAX_PLY = 64;
+    private static final int KILLER_SLOTS = 2;
+    private static final int[] KILLER_SCORES = {9000, 8500};
+    private static final int COUNTER_MOVE_SCORE = 8000;
+    private static final int HISTORY_LIMIT = 7000;
+    private static final int HISTORY_AGING_DIVISOR = 2;
+    private static final int NO_MOVE = -1;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVE_INDEX = 3;
+    private static final int QUIESCENCE_DEPTH = 3;
+    private static final int ASPIRATION_MIN_DEPTH = 3;
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_MAX_WINDOW = 1000;
+    private static final int MATE_THRESHOLD = INFINITY - 1000;
+    private static final int FRONTIER_DEPTH = 3;
+    static final int DEFAULT_HASH_ENTRIES = 1 << 18;
+    private static final int STOP_CHECK_INTERVAL = 1024; // nodes between clock reads, power of two
+    private static final PieceType[] EXCHANGE_ORDER = {
+            PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+
+    static final int[][] PAWN_TABLE = {
             {0, 0, 0, 0, 0, 0, 0, 0},
             {50, 50, 50, 50, 50, 50, 50, 50},
             {10, 10, 20, 30, 30, 20, 10, 10},
@@ -29,7 +105,7 @@ public class EasyChessAI {
             {0, 0, 0, 0, 0, 0, 0, 0}
     };
 
-    private static final int[][] KNIGHT_TABLE = {
+    static final int[][] KNIGHT_TABLE = {
             {-50, -40, -30, -30, -30, -30, -40, -50},
             {-40, -20, 0, 0, 0, 0, -20, -40},
             {-30, 0, 10, 15, 15, 10, 0, -30},
@@ -40,7 +116,7 @@ public class EasyChessAI {
             {-50, -40, -30, -30, -30, -30, -40, -50}
     };
 
-    private static final int[][] BISHOP_TABLE = {
+    static final int[][] BISHOP_TABLE = {
             {-20, -10, -10, -10, -10, -10, -10, -20},
             {-10, 0, 0, 0, 0, 0, 0, -10},
             {-10, 0, 5, 10, 10, 5, 0, -10},
@@ -51,7 +127,7 @@ public class EasyChessAI {
             {-20, -10, -10, -10, -10, -10, -10, -20}
     };
 
-    private static final int[][] KING_TABLE = {
+    static final int[][] KING_TABLE = {
             {-30, -40, -40, -50, -50, -40, -40, -30},
             {-30, -40, -40, -50, -50, -40, -40, -30},
             {-30, -40, -40, -50, -50, -40, -40, -30},
@@ -71,6 +147,17 @@ public class EasyChessAI {
         public final boolean isEnPassant;
         public final boolean isPromotion;
 
+        // Ordering data filled in by orderMoves
+        private int orderScore;
+        private int exchangeScore;
+
+        // State saved by makeMove so unmakeMove can restore the position
+        private boolean pieceHadMoved;
+        private boolean rookHadMoved;
+        private int previousEnPassant;
+        private ChessPiece enPassantVictim;
+        private ChessPiece promotedPiece;
+
         public Move(ChessPiece piece, int fromRow, int fromCol, int toRow, int toCol, ChessPiece capturedPiece) {
             this.piece = piece;
             this.fromRow = fromRow;
@@ -83,396 +170,834 @@ public class EasyChessAI {
             this.isPromotion = piece instanceof Pawn && ((piece.getColor() == ChessPiece.WHITE && toRow == 0) ||
                     (piece.getColor() == ChessPiece.BLACK && toRow == 7));
         }
+
+        int getOrderScore() {
+            return orderScore;
+        }
+
+        int getExchangeScore() {
+            return exchangeScore;
+        }
+
+        // Coordinate notation as used by UCI, e.g. e2e4 or e7e8q
+        @Override
+        public String toString() {
+            String move = "" + (char) ('a' + fromCol) + (8 - fromRow) + (char) ('a' + toCol) + (8 - toRow);
+            return isPromotion ? move + "q" : move;
+        }
     }
 
-    public static Move getBestMove(ChessBoard board, int aiColor, int depth, long timeLimit) {
-        long startTime = System.currentTimeMillis();
-        return minimaxRoot(board, aiColor, depth, -INFINITY, INFINITY, startTime, timeLimit);
+    public static int getMobilityWeight(PieceType type) {
+        return MOBILITY_WEIGHTS[type.getCode()];
     }
 
-    private static Move minimaxRoot(ChessBoard board, int aiColor, int depth, int alpha, int beta, long startTime, long timeLimit) {
-        List<Move> moves = generateAllMoves(board, aiColor);
-        if (moves.isEmpty()) return null;
+    public static void setMobilityWeight(PieceType type, int weight) {
+        MOBILITY_WEIGHTS[type.getCode()] = weight;
+    }
 
-        Move bestMove = null;
-        int bestValue = -INFINITY;
+    public PawnHashTable getPawnHashTable() {
+        return pawnHash;
+    }
 
-        // Sort moves for better pruning - prioritize captures and important moves
-        moves.sort((m1, m2) -> Integer.compare(getMoveScore(m2), getMoveScore(m1)));
+    // Quiet move ordering: killer moves per ply, butterfly history and counter moves,
+    // all keyed by moveKey (from square * 64 + to square)
+    private final int[][] killerMoves = new int[MAX_PLY][KILLER_SLOTS];
+    private final int[][][] history = new int[2][64][64];
+    private final int[] counterMoves = new int[64 * 64];
 
-        for (Move move : moves) {
-            if (System.currentTimeMillis() - startTime > timeLimit) break;
+    // Kept per engine like the tables above, so its slots and counters need no synchronization
+    private final PawnHashTable pawnHash = new PawnHashTable(PAWN_HASH_ENTRIES);
 
-            // Create board copy and make move
-            ChessBoard tempBoard = createBoardCopy(board);
-            makeMove(tempBoard, move);
+    // Results of earlier searches, kept between moves like the ordering tables
+    private final TranspositionTable transpositionTable;
 
-            int value = minimax(tempBoard, depth - 1, alpha, beta, false, aiColor, startTime, timeLimit);
+    // Deep search results are also appended here, when set, to be reloaded next time
+    // Only results at least as deep as the game's own searches are worth keeping: anything
+    // shallower is cheap to search again, and as later records win when the file is loaded,
+    // it would replace a deeper result recorded earlier for the same position
+    private LearningFile learningFile;
+    private int learningMinDepth = 4;
 
-            if (value > bestValue) {
-                bestValue = value;
-                bestMove = move;
-            }
+    // Evaluation network; null selects the hand-crafted evaluation
+    private NnueNetwork network;
 
-            alpha = Math.max(alpha, value);
-            if (beta <= alpha) break;
-        }
+    public EasyChessAI() {
+        this(DEFAULT_HASH_ENTRIES);
+    }
 
-        return bestMove;
+    public EasyChessAI(long hashEntries) {
+        this(new TranspositionTable(hashEntries));
     }
 
-    private static int minimax(ChessBoard board, int depth, int alpha, int beta, boolean maximizing,
-                               int aiColor, long startTime, long timeLimit) {
-        if (System.currentTimeMillis() - startTime > timeLimit) {
-            return evaluateBoard(board, aiColor);
-        }
+    /**
+     * Creates an engine using the given transposition table, which may be shared with
+     * engines searching on other threads.
+     */
+    public EasyChessAI(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        Arrays.fill(counterMoves, NO_MOVE);
+    }
 
-        if (depth == 0) {
-            return quiescenceSearch(board, alpha, beta, maximizing, aiColor, 3);
+    // Selective search features, individually switchable for benchmarking
+    private boolean nullMovePruning = true;
+    private boolean lateMoveReductions = true;
+    private boolean checkExtensions = true;
+
+    // Frontier pruning margins in centipawns, indexed by remaining depth (1-3)
+    private final int[] futilityMargins = {0, 150, 300, 450};
+    private final int[] reverseFutilityMargins = {0, 120, 240, 360};
+    private final int[] razoringMargins = {0, 300, 500, 700};
+    private int deltaMargin = 200;
+
+    // Per-search state
+    private int rootDepth;
+    private long startTime;
+    private long deadline;      // System.nanoTime() at which the search gives up
+    private boolean stopped;    // set once the search is aborted; every node then unwinds
+    private long nodeLimit = Long.MAX_VALUE;
+    // Searches are numbered from 1, so a stop aimed at one search never reaches another
+    private volatile long searchNumber;
+    private final AtomicLong stopRequested = new AtomicLong();
+    private Move rootBestMove;
+    private int currentLine = 1; // multi-PV line being searched, counted from 1
+
+    // Triangular PV table: row p holds the best line found from ply p onwards
+    private final Move[][] pvTable = new Move[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    // Result of the last completed iteration
+    private List<Move> principalVariation = new ArrayList<>();
+    private int lastScore;
+    private int completedDepth;
+
+    // Counters for the most recent search, and listeners for its progress
+    private final SearchStatistics statistics = new SearchStatistics();
+    private final List<Consumer<SearchInfo>> infoListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<SearchInfo>> searchListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Searches for the best move by iterative deepening up to the given depth. Each
+     * iteration after the first starts with an aspiration window around the previous
+     * score and widens it whenever the result falls outside.
+     *
+     * @param board     the position to search; restored to its original state on return
+     * @param aiColor   the side to move
+     * @param depth     the maximum depth in plies
+     * @param timeLimit time budget in milliseconds; the last completed iteration is used
+     * @return the best move found, or null if the side to move has no legal moves
+     */
+    public Move findBestMove(ChessBoard board, int aiColor, int depth, long timeLimit) {
+        beginSearch(board, timeLimit);
+        Move bestMove = iterativeDeepening(board, aiColor, depth, Set.of());
+        endSearch(board);
+        if (bestMove != null && completedDepth > 0) {
+            // The root is never stored by negamax; keep its result for the next search
+            long key = positionKey(board, aiColor);
+            transpositionTable.store(key, moveKey(bestMove), completedDepth, TranspositionTable.BOUND_EXACT, lastScore);
+            if (learningFile != null && completedDepth >= learningMinDepth) {
+                learningFile.record(key, moveKey(bestMove), completedDepth, lastScore);
+            }
         }
+        publishSummary();
+        return bestMove;
+    }
 
-        int currentPlayer = maximizing ? aiColor : (aiColor == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE);
-
-        // Check terminal positions first
-        if (GameLogic.isInCheckmate(board, currentPlayer)) {
-            // If maximizing player is in checkmate, return very negative value
-            // If minimizing player is in checkmate, return very positive value
-            return maximizing ? -INFINITY + (MAX_DEPTH - depth) : INFINITY - (MAX_DEPTH - depth);
+    /**
+     * Finds the best few moves with their scores and principal variations (multi-PV),
+     * for hints and game review. Each line is a full iterative deepening search with the
+     * root moves of the earlier lines excluded, so it yields the best of the remaining
+     * moves; the transposition table carries over between them, which makes the later
+     * lines much cheaper than the first.
+     *
+     * @param board     the position to search; restored to its original state on return
+     * @param color     the side to move
+     * @param depth     the maximum depth in plies for each line
+     * @param timeLimit time budget in milliseconds for all lines together
+     * @param lines     how many moves to report
+     * @return up to {@code lines} results, best first; fewer if there are fewer legal
+     *         moves or time ran out
+     */
+    public List<SearchInfo> findBestLines(ChessBoard board, int color, int depth, long timeLimit, int lines) {
+        beginSearch(board, timeLimit);
+        List<SearchInfo> results = new ArrayList<>();
+        Set<Integer> excluded = new HashSet<>();
+        for (currentLine = 1; currentLine <= lines; currentLine++) {
+            Move bestMove = iterativeDeepening(board, color, depth, excluded);
+            if (bestMove == null || completedDepth == 0) break;
+            results.add(createInfo(0));
+            excluded.add(moveKey(bestMove));
+            if (stopped) break;
         }
+        currentLine = 1;
+        endSearch(board);
+        publishSummary();
+        return results;
+    }
 
-        if (GameLogic.isInStalemate(board, currentPlayer)) {
-            return 0; // Draw
+    private void beginSearch(ChessBoard board, long timeLimit) {
+        if (network != null) {
+            board.setAccumulator(new NnueAccumulator(network));
         }
+        startTime = System.currentTimeMillis();
+        // Capped at a day so the nanosecond deadline cannot overflow
+        deadline = System.nanoTime() + Math.min(timeLimit, 86_400_000L) * 1_000_000L;
+        stopped = false;
+        searchNumber++;
+        prepareOrderingTables();
+    }
 
-        List<Move> moves = generateAllMoves(board, currentPlayer);
-        if (moves.isEmpty()) {
-            // No legal moves available - this should be checkmate or stalemate
-            return maximizing ? -INFINITY + (MAX_DEPTH - depth) : INFINITY - (MAX_DEPTH - depth);
+    private void endSearch(ChessBoard board) {
+        if (network != null) {
+            board.setAccumulator(null);
         }
+    }
 
-        // Sort moves for better pruning
-        moves.sort((m1, m2) -> Integer.compare(getMoveScore(m2), getMoveScore(m1)));
+    private Move iterativeDeepening(ChessBoard board, int aiColor, int depth, Set<Integer> excludedRootMoves) {
+        List<Move> rootMoves = MoveGenerator.generateLegalMoves(board, aiColor);
+        rootMoves.removeIf(move -> excludedRootMoves.contains(moveKey(move)));
+        if (rootMoves.isEmpty()) return null;
+        orderMoves(board, rootMoves, 0, null);
+
+        // A move remembered for this position (from an earlier search or the learning file) goes first
+        long entry = transpositionTable.probe(positionKey(board, aiColor));
+        if (entry != TranspositionTable.MISS) {
+            int hashMove = TranspositionTable.getMoveKey(entry);
+            for (int i = 1; i < rootMoves.size(); i++) {
+                if (moveKey(rootMoves.get(i)) == hashMove) {
+                    rootMoves.add(0, rootMoves.remove(i));
+                    break;
+                }
+            }
+        }
 
-        if (maximizing) {
-            int maxEval = -INFINITY;
-            for (Move move : moves) {
-                ChessBoard tempBoard = createBoardCopy(board);
-                makeMove(tempBoard, move);
+        Move bestMove = rootMoves.get(0);
+        principalVariation = new ArrayList<>(List.of(bestMove));
+        lastScore = 0;
+        completedDepth = 0;
+
+        for (int iteration = 1; iteration <= depth; iteration++) {
+            rootDepth = iteration;
+            int window = ASPIRATION_WINDOW;
+            boolean aspirate = iteration >= ASPIRATION_MIN_DEPTH && Math.abs(lastScore) < MATE_THRESHOLD;
+            int alpha = aspirate ? lastScore - window : -INFINITY;
+            int beta = aspirate ? lastScore + window : INFINITY;
+
+            int score;
+            long iterationStart = System.currentTimeMillis();
+            while (true) {
+                rootBestMove = null;
+                score = searchRoot(board, rootMoves, aiColor, iteration, alpha, beta);
+                if (stopped) break;
+                if (Trace.ENABLED && (score <= alpha || score >= beta)) {
+                    Trace.record("depth " + iteration + " score " + score + " outside aspiration window ["
+                            + alpha + ", " + beta + "]");
+                }
+                if (score <= alpha && alpha > -INFINITY) {
+                    window *= 4;
+                    alpha = window > ASPIRATION_MAX_WINDOW ? -INFINITY : lastScore - window;
+                } else if (score >= beta && beta < INFINITY) {
+                    window *= 4;
+                    beta = window > ASPIRATION_MAX_WINDOW ? INFINITY : lastScore + window;
+                } else {
+                    break;
+                }
+            }
 
-                int eval = minimax(tempBoard, depth - 1, alpha, beta, false, aiColor, startTime, timeLimit);
+            if (stopped) {
+                if (Trace.ENABLED) {
+                    Trace.record("depth " + iteration + " timed out after " + statistics.getNodes() + " nodes");
+                }
+                // A partial iteration is only trusted if nothing has completed yet
+                if (completedDepth == 0 && rootBestMove != null) {
+                    bestMove = rootBestMove;
+                }
+                break;
+            }
 
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) break; // Alpha-beta pruning
+            bestMove = rootBestMove;
+            lastScore = score;
+            completedDepth = iteration;
+            principalVariation = new ArrayList<>(Arrays.asList(pvTable[0]).subList(0, pvLength[0]));
+            publishIteration(iterationStart);
+            if (Trace.ENABLED) {
+                Trace.record("depth " + iteration + " score " + score + " best " + bestMove
+                        + " nodes " + statistics.getNodes());
             }
-            return maxEval;
-        } else {
-            int minEval = INFINITY;
-            for (Move move : moves) {
-                ChessBoard tempBoard = createBoardCopy(board);
-                makeMove(tempBoard, move);
 
-                int eval = minimax(tempBoard, depth - 1, alpha, beta, true, aiColor, startTime, timeLimit);
+            // Search the best move first in the next iteration
+            rootMoves.remove(bestMove);
+            rootMoves.add(0, bestMove);
+        }
+        return bestMove;
+    }
 
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) break; // Alpha-beta pruning
+    private void publishSummary() {
+        if (!searchListeners.isEmpty()) {
+            SearchInfo summary = createInfo(System.currentTimeMillis() - startTime);
+            for (Consumer<SearchInfo> listener : searchListeners) {
+                listener.accept(summary);
             }
-            return minEval;
         }
     }
 
-    private static ChessBoard createBoardCopy(ChessBoard original) {
-        ChessBoard copy = new ChessBoard();
-        copy.clearBoard();
-
-        // Copy all pieces with their exact state
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = original.pieceAt(row, col);
-                if (piece != null) {
-                    ChessPiece copiedPiece = copyPiece(piece);
-                    copy.addPiece(copiedPiece);
-                }
+    private void publishIteration(long iterationStart) {
+        long now = System.currentTimeMillis();
+        SearchIterationEvent event = new SearchIterationEvent();
+        if (event.shouldCommit()) {
+            event.depth = completedDepth;
+            event.score = lastScore;
+            event.nodes = statistics.getNodes();
+            event.betaCutoffs = statistics.getBetaCutoffs();
+            event.firstMoveCutoffRate = statistics.getFirstMoveCutoffRate();
+            event.hashHitRate = statistics.getHashHitRate();
+            event.bestMove = String.valueOf(rootBestMove);
+            event.commit();
+        }
+        if (!infoListeners.isEmpty()) {
+            SearchInfo info = createInfo(now - iterationStart);
+            for (Consumer<SearchInfo> listener : infoListeners) {
+                listener.accept(info);
             }
         }
+    }
 
-        return copy;
+    private SearchInfo createInfo(long iterationMillis) {
+        return new SearchInfo(currentLine, completedDepth, lastScore, statistics.getNodes(), System.currentTimeMillis() - startTime,
+                iterationMillis, statistics.getHashHitRate(), statistics.getFirstMoveCutoffRate(), principalVariation);
     }
 
-    private static ChessPiece copyPiece(ChessPiece original) {
-        ChessPiece copy;
-        switch (original.getType()) {
-            case PAWN:
-                copy = new Pawn(original.getRow(), original.getCol(), original.getColor());
-                // Copy pawn-specific state if needed
-                break;
-            case ROOK:
-                copy = new Rook(original.getRow(), original.getCol(), original.getColor());
-                // Preserve moved state for castling rights
-                if (original instanceof Rook) {
-                    Rook originalRook = (Rook) original;
-                    Rook copyRook = (Rook) copy;
-                    if (originalRook.hasMoved()) {
-                        copyRook.setHasMoved(true);
-                    }
-                }
-                break;
-            case KNIGHT:
-                copy = new Knight(original.getRow(), original.getCol(), original.getColor());
-                break;
-            case BISHOP:
-                copy = new Bishop(original.getRow(), original.getCol(), original.getColor());
-                break;
-            case QUEEN:
-                copy = new Queen(original.getRow(), original.getCol(), original.getColor());
-                break;
-            case KING:
-                copy = new King(original.getRow(), original.getCol(), original.getColor());
-                // Preserve moved state for castling rights
-                if (original instanceof King) {
-                    King originalKing = (King) original;
-                    King copyKing = (King) copy;
-                    if (originalKing.hasMoved()) {
-                        copyKing.setHasMoved(true);
-                    }
-                }
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown piece type: " + original.getType());
-        }
-        return copy;
+    /**
+     * Registers a listener called on the searching thread each time an iteration of
+     * iterative deepening completes.
+     */
+    public void addInfoListener(Consumer<SearchInfo> listener) {
+        infoListeners.add(listener);
     }
 
-    private static int quiescenceSearch(ChessBoard board, int alpha, int beta, boolean maximizing, int aiColor, int depth) {
-        int standPat = evaluateBoard(board, aiColor);
+    public void removeInfoListener(Consumer<SearchInfo> listener) {
+        infoListeners.remove(listener);
+    }
 
-        if (depth == 0) return standPat;
+    /**
+     * Registers a listener called once at the end of every search with its totals.
+     */
+    public void addSearchListener(Consumer<SearchInfo> listener) {
+        searchListeners.add(listener);
+    }
 
-        if (maximizing) {
-            if (standPat >= beta) return beta;
-            alpha = Math.max(alpha, standPat);
+    public void removeSearchListener(Consumer<SearchInfo> listener) {
+        searchListeners.remove(listener);
+    }
 
-            List<Move> captures = generateCaptureMoves(board, aiColor);
-            // Sort captures by value
-            captures.sort((m1, m2) -> Integer.compare(getMoveScore(m2), getMoveScore(m1)));
+    /**
+     * Returns the counters of the most recent (or running) search. Only read them from
+     * the searching thread; other threads should use an info listener.
+     */
+    public SearchStatistics getStatistics() {
+        return statistics;
+    }
 
-            for (Move move : captures) {
-                ChessBoard tempBoard = createBoardCopy(board);
-                makeMove(tempBoard, move);
-                int score = quiescenceSearch(tempBoard, alpha, beta, false, aiColor, depth - 1);
+    /**
+     * Returns the principal variation of the last completed iteration, starting with
+     * the best move.
+     */
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
 
-                if (score >= beta) return beta;
-                alpha = Math.max(alpha, score);
-            }
-            return alpha;
-        } else {
-            if (standPat <= alpha) return alpha;
-            beta = Math.min(beta, standPat);
+    /**
+     * Returns the score of the last completed iteration in centipawns, from the point of
+     * view of the side that was searched.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
 
-            int opponent = aiColor == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
-            List<Move> captures = generateCaptureMoves(board, opponent);
-            // Sort captures by value
-            captures.sort((m1, m2) -> Integer.compare(getMoveScore(m2), getMoveScore(m1)));
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
 
-            for (Move move : captures) {
-                ChessBoard tempBoard = createBoardCopy(board);
-                makeMove(tempBoard, move);
-                int score = quiescenceSearch(tempBoard, alpha, beta, true, aiColor, depth - 1);
+    /**
+     * Returns the share of beta cutoffs in the last search that happened on the first
+     * move searched, between 0 and 1. Good move ordering keeps this above 0.9.
+     */
+    public double getFirstMoveCutoffRate() {
+        return statistics.getFirstMoveCutoffRate();
+    }
 
-                if (score <= alpha) return alpha;
-                beta = Math.min(beta, score);
-            }
-            return beta;
-        }
+    public long getBetaCutoffs() {
+        return statistics.getBetaCutoffs();
     }
 
-    private static List<Move> generateAllMoves(ChessBoard board, int color) {
-        List<Move> moves = new ArrayList<>();
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
 
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board.pieceAt(row, col);
-                if (piece != null && piece.getColor() == color) {
-                    // Generate moves based on piece type for better efficiency
-                    List<Move> pieceMoves = generateMovesForPiece(board, piece);
-                    moves.addAll(pieceMoves);
-                }
-            }
-        }
+    /**
+     * Sets a file that completed searches of at least {@link #getLearningMinDepth} plies
+     * are appended to, or null to stop recording. Loading the file back is up to the
+     * caller, see {@link LearningFile#loadInto}.
+     */
+    public void setLearningFile(LearningFile learningFile) {
+        this.learningFile = learningFile;
+    }
 
-        return moves;
+    public NnueNetwork getNetwork() {
+        return network;
     }
 
-    private static List<Move> generateMovesForPiece(ChessBoard board, ChessPiece piece) {
-        List<Move> moves = new ArrayList<>();
-        int row = piece.getRow();
-        int col = piece.getCol();
+    /**
+     * Switches evaluation to a neural network, or back to the hand-crafted evaluation
+     * when given null. Takes effect from the next search.
+     */
+    public void setNetwork(NnueNetwork network) {
+        this.network = network;
+    }
 
-        // Generate moves based on piece type
-        switch (piece.getType()) {
-            case PAWN:
-                generatePawnMoves(board, piece, moves);
-                break;
-            case ROOK:
-                generateSlidingMoves(board, piece, moves, new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}});
-                break;
-            case BISHOP:
-                generateSlidingMoves(board, piece, moves, new int[][]{{-1, -1}, {-1, 1}, {1, -1}, {1, 1}});
-                break;
-            case QUEEN:
-                generateSlidingMoves(board, piece, moves, new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}});
-                break;
-            case KNIGHT:
-                generateKnightMoves(board, piece, moves);
-                break;
-            case KING:
-                generateKingMoves(board, piece, moves);
-                break;
-        }
+    public int getLearningMinDepth() {
+        return learningMinDepth;
+    }
+
+    public void setLearningMinDepth(int depth) {
+        learningMinDepth = depth;
+    }
+
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    public void setNullMovePruning(boolean enabled) {
+        nullMovePruning = enabled;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
 
-        return moves;
+    public void setLateMoveReductions(boolean enabled) {
+        lateMoveReductions = enabled;
     }
 
-    private static void generatePawnMoves(ChessBoard board, ChessPiece pawn, List<Move> moves) {
-        int row = pawn.getRow();
-        int col = pawn.getCol();
-        int direction = pawn.getColor() == ChessPiece.WHITE ? -1 : 1;
+    public int getFutilityMargin(int depth) {
+        return futilityMargins[depth];
+    }
+
+    public void setFutilityMargin(int depth, int margin) {
+        futilityMargins[depth] = margin;
+    }
+
+    public int getReverseFutilityMargin(int depth) {
+        return reverseFutilityMargins[depth];
+    }
+
+    public void setReverseFutilityMargin(int depth, int margin) {
+        reverseFutilityMargins[depth] = margin;
+    }
+
+    public int getRazoringMargin(int depth) {
+        return razoringMargins[depth];
+    }
+
+    public void setRazoringMargin(int depth, int margin) {
+        razoringMargins[depth] = margin;
+    }
+
+    public int getDeltaMargin() {
+        return deltaMargin;
+    }
+
+    public void setDeltaMargin(int margin) {
+        deltaMargin = margin;
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Limits every search to about this many nodes, on top of the time limit, so results
+     * do not depend on machine speed or load. The limit is checked along with the clock,
+     * so a search may overshoot it by up to 1024 nodes.
+     */
+    public void setNodeLimit(long nodes) {
+        nodeLimit = nodes;
+    }
+
+    public boolean isCheckExtensions() {
+        return checkExtensions;
+    }
+
+    public void setCheckExtensions(boolean enabled) {
+        checkExtensions = enabled;
+    }
 
-        // Forward moves
-        int newRow = row + direction;
-        if (newRow >= 0 && newRow < 8 && board.pieceAt(newRow, col) == null) {
-            if (GameLogic.canMakeMove(board, pawn, newRow, col)) {
-                moves.add(new Move(pawn, row, col, newRow, col, null));
+    // Killers only make sense within one search; history and counter moves are aged instead of cleared
+    private void prepareOrderingTables() {
+        for (int[] slots : killerMoves) {
+            Arrays.fill(slots, NO_MOVE);
+        }
+        for (int[][] colorHistory : history) {
+            for (int[] fromHistory : colorHistory) {
+                for (int to = 0; to < 64; to++) {
+                    fromHistory[to] /= HISTORY_AGING_DIVISOR;
+                }
             }
+        }
+        statistics.reset();
+    }
 
-            // Double move from starting position
-            if ((pawn.getColor() == ChessPiece.WHITE && row == 6) ||
-                    (pawn.getColor() == ChessPiece.BLACK && row == 1)) {
-                newRow = row + 2 * direction;
-                if (newRow >= 0 && newRow < 8 && board.pieceAt(newRow, col) == null) {
-                    if (GameLogic.canMakeMove(board, pawn, newRow, col)) {
-                        moves.add(new Move(pawn, row, col, newRow, col, null));
+    static int moveKey(Move move) {
+        return (move.fromRow * 8 + move.fromCol) * 64 + move.toRow * 8 + move.toCol;
+    }
+
+    private void recordCutoff(Move move, int moveIndex, int depth, int ply, Move previousMove) {
+        statistics.countCutoff(moveIndex == 0);
+        if (move.capturedPiece != null || move.isEnPassant || move.isPromotion) return;
+
+        int key = moveKey(move);
+        if (ply < MAX_PLY && killerMoves[ply][0] != key) {
+            killerMoves[ply][1] = killerMoves[ply][0];
+            killerMoves[ply][0] = key;
+        }
+        if (previousMove != null) {
+            counterMoves[moveKey(previousMove)] = key;
+        }
+
+        int[] fromHistory = history[move.piece.getColor()][move.fromRow * 8 + move.fromCol];
+        int to = move.toRow * 8 + move.toCol;
+        fromHistory[to] += depth * depth;
+        if (fromHistory[to] > HISTORY_LIMIT) {
+            // Halve everything so the scores stay below the killer and counter-move bonuses
+            for (int[][] colorHistory : history) {
+                for (int[] row : colorHistory) {
+                    for (int i = 0; i < 64; i++) {
+                        row[i] /= 2;
                     }
                 }
             }
         }
+    }
 
-        // Captures
-        for (int colOffset : new int[]{-1, 1}) {
-            int newCol = col + colOffset;
-            newRow = row + direction;
-            if (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
-                if (GameLogic.canMakeMove(board, pawn, newRow, newCol)) {
-                    ChessPiece captured = board.pieceAt(newRow, newCol);
-                    moves.add(new Move(pawn, row, col, newRow, newCol, captured));
+    private int searchRoot(ChessBoard board, List<Move> moves, int color, int depth, int alpha, int beta) {
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        int best = -INFINITY;
+        pvLength[0] = 0;
+
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            makeMove(board, move);
+            int score;
+            if (i == 0) {
+                score = -negamax(board, depth - 1, -beta, -alpha, opponent, 1, move);
+            } else {
+                // Principal variation search: prove the move is worse with a null window
+                score = -negamax(board, depth - 1, -alpha - 1, -alpha, opponent, 1, move);
+                if (score > alpha && score < beta) {
+                    score = -negamax(board, depth - 1, -beta, -alpha, opponent, 1, move);
                 }
             }
+            unmakeMove(board, move);
+            if (stopped) break;
+
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+                updatePrincipalVariation(0, move);
+            }
+            if (alpha >= beta) break;
         }
+        return best;
     }
 
-    private static void generateSlidingMoves(ChessBoard board, ChessPiece piece, List<Move> moves, int[][] directions) {
-        int row = piece.getRow();
-        int col = piece.getCol();
+    private int negamax(ChessBoard board, int depth, int alpha, int beta, int color, int ply, Move previousMove) {
+        pvLength[ply] = ply;
+        statistics.countNode();
+        if (shouldStop()) return 0;
 
-        for (int[] dir : directions) {
-            for (int dist = 1; dist < 8; dist++) {
-                int newRow = row + dir[0] * dist;
-                int newCol = col + dir[1] * dist;
+        boolean inCheck = Attacks.isInCheck(board, color);
 
-                if (newRow < 0 || newRow >= 8 || newCol < 0 || newCol >= 8) break;
+        // Check extension: never drop into quiescence while in check. Limited to twice the
+        // nominal depth so long checking sequences cannot keep the search from terminating.
+        if (inCheck && checkExtensions && ply < 2 * rootDepth) {
+            depth++;
+        }
 
-                if (GameLogic.canMakeMove(board, piece, newRow, newCol)) {
-                    ChessPiece captured = board.pieceAt(newRow, newCol);
-                    moves.add(new Move(piece, row, col, newRow, newCol, captured));
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescenceSearch(board, alpha, beta, color, QUIESCENCE_DEPTH);
+        }
 
-                    // Stop if we captured something
-                    if (captured != null) break;
-                } else {
-                    // Can't move here, stop sliding in this direction
-                    break;
+        boolean pvNode = beta - alpha > 1;
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+
+        // Transposition table: a deep enough earlier result may settle this node outright
+        // (off the principal variation, so the PV stays complete); otherwise its best
+        // move is searched first
+        long key = positionKey(board, color);
+        long entry = transpositionTable.probe(key);
+        int hashMove = NO_MOVE;
+        statistics.countHashProbe(entry != TranspositionTable.MISS);
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.getMoveKey(entry);
+            if (!pvNode && TranspositionTable.getDepth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    statistics.countHashCutoff();
+                    return score;
                 }
             }
         }
-    }
-
-    private static void generateKnightMoves(ChessBoard board, ChessPiece knight, List<Move> moves) {
-        int row = knight.getRow();
-        int col = knight.getCol();
-        int[][] knightMoves = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
 
-        for (int[] move : knightMoves) {
-            int newRow = row + move[0];
-            int newCol = col + move[1];
+        // Frontier pruning uses the static evaluation, so it is kept off the principal
+        // variation and out of check, where the static score is least reliable
+        boolean frontierNode = !pvNode && !inCheck && depth <= FRONTIER_DEPTH;
+        int staticEval = pvNode || inCheck ? 0 : evaluate(board, color);
+        boolean futile = false;
+        if (frontierNode && Math.abs(beta) < MATE_THRESHOLD) {
+            // Reverse futility (static null move): far enough above beta that no reply will catch up
+            if (staticEval - reverseFutilityMargins[depth] >= beta) {
+                return staticEval;
+            }
 
-            if (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
-                if (GameLogic.canMakeMove(board, knight, newRow, newCol)) {
-                    ChessPiece captured = board.pieceAt(newRow, newCol);
-                    moves.add(new Move(knight, row, col, newRow, newCol, captured));
-                }
+            // Razoring: far enough below alpha that only captures could help
+            if (staticEval + razoringMargins[depth] < alpha) {
+                int score = quiescenceSearch(board, alpha, beta, color, QUIESCENCE_DEPTH);
+                if (depth == 1 || score <= alpha) return score;
             }
+
+            // Futility: quiet moves are skipped below when even a margin cannot lift the score to alpha
+            futile = staticEval + futilityMargins[depth] <= alpha;
         }
-    }
 
-    private static void generateKingMoves(ChessBoard board, ChessPiece king, List<Move> moves) {
-        int row = king.getRow();
-        int col = king.getCol();
-        int[][] kingMoves = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+        // Null move pruning: if passing still fails high, a real move will too.
+        // Skipped on the principal variation, right after another null move, in check,
+        // and with only king and pawns left, where passing would often be the best
+        // move (zugzwang).
+        if (nullMovePruning && !pvNode && previousMove != null && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+                && hasPiecesBesidesPawns(board, color) && staticEval >= beta) {
+            int enPassant = board.getEnPassantSquare();
+            board.setEnPassantSquare(-1);
+            int score = -negamax(board, depth - 1 - NULL_MOVE_REDUCTION, -beta, -beta + 1, opponent, ply + 1, null);
+            board.setEnPassantSquare(enPassant);
+            if (stopped) return 0;
+            if (score >= beta) return beta;
+        }
 
-        for (int[] move : kingMoves) {
-            int newRow = row + move[0];
-            int newCol = col + move[1];
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        Move bestMove = null;
+        int legalMoves = 0;
+        MovePicker picker = new MovePicker(this, board, color, hashMove, ply, previousMove);
+        Move move;
+        while ((move = picker.next()) != null) {
+            makeMove(board, move);
+            if (Attacks.isInCheck(board, color)) {
+                unmakeMove(board, move);
+                continue;
+            }
+            int i = legalMoves++;
 
-            if (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
-                if (GameLogic.canMakeMove(board, king, newRow, newCol)) {
-                    ChessPiece captured = board.pieceAt(newRow, newCol);
-                    moves.add(new Move(king, row, col, newRow, newCol, captured));
+            boolean quiet = move.capturedPiece == null && !move.isEnPassant && !move.isPromotion;
+            if (futile && i > 0 && quiet && !Attacks.isInCheck(board, opponent)) {
+                unmakeMove(board, move);
+                best = Math.max(best, staticEval + futilityMargins[depth]);
+                continue;
+            }
+
+            int score;
+            if (i == 0) {
+                score = -negamax(board, depth - 1, -beta, -alpha, opponent, ply + 1, move);
+            } else {
+                // Late move reductions: quiet moves ordered late are searched shallower first
+                boolean reduced = lateMoveReductions && i >= LMR_MIN_MOVE_INDEX && depth >= LMR_MIN_DEPTH && !inCheck
+                        && quiet && !Attacks.isInCheck(board, opponent);
+                int searchDepth = reduced ? depth - 2 : depth - 1;
+
+                // Principal variation search: later moves only need to be proven worse,
+                // which a null window does cheaply; re-search when one turns out better
+                score = -negamax(board, searchDepth, -alpha - 1, -alpha, opponent, ply + 1, move);
+                if (score > alpha && reduced) {
+                    score = -negamax(board, depth - 1, -alpha - 1, -alpha, opponent, ply + 1, move);
                 }
+                if (score > alpha && score < beta) {
+                    score = -negamax(board, depth - 1, -beta, -alpha, opponent, ply + 1, move);
+                }
+            }
+            unmakeMove(board, move);
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+            }
+            if (alpha >= beta) { // Beta cutoff
+                recordCutoff(move, i, depth, ply, previousMove);
+                break;
             }
         }
 
-        // Castling moves (if GameLogic supports it)
-        if (king instanceof King && !((King) king).hasMoved()) {
-            // Kingside castling
-            if (GameLogic.canMakeMove(board, king, row, col + 2)) {
-                moves.add(new Move(king, row, col, row, col + 2, null));
+        if (legalMoves == 0) {
+            // No legal moves: checkmate (sooner is worse for the mated side) or stalemate
+            return inCheck ? -INFINITY + ply : 0;
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        transpositionTable.store(key, bestMove == null ? NO_MOVE : moveKey(bestMove), depth, bound, scoreToTable(best, ply));
+        return best;
+    }
+
+    /**
+     * Returns the key the transposition table files a position under: the board's piece
+     * key combined with the side to move, the en passant file and the castling rights.
+     */
+    static long positionKey(ChessBoard board, int color) {
+        long key = board.getZobristKey();
+        if (color == ChessPiece.BLACK) {
+            key ^= Zobrist.sideToMoveKey();
+        }
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant >= 0) {
+            key ^= Zobrist.enPassantKey(enPassant % 8);
+        }
+        for (int side = ChessPiece.WHITE; side <= ChessPiece.BLACK; side++) {
+            int row = side == ChessPiece.WHITE ? 7 : 0;
+            ChessPiece king = board.pieceAt(row, 4);
+            if (!(king instanceof King) || king.getColor() != side || king.hasMoved()) continue;
+            ChessPiece rook = board.pieceAt(row, 7);
+            if (rook instanceof Rook && rook.getColor() == side && !rook.hasMoved()) {
+                key ^= Zobrist.castlingKey(side, true);
             }
-            // Queenside castling
-            if (GameLogic.canMakeMove(board, king, row, col - 2)) {
-                moves.add(new Move(king, row, col, row, col - 2, null));
+            rook = board.pieceAt(row, 0);
+            if (rook instanceof Rook && rook.getColor() == side && !rook.hasMoved()) {
+                key ^= Zobrist.castlingKey(side, false);
             }
         }
+        return key;
     }
 
-    private static List<Move> generateCaptureMoves(ChessBoard board, int color) {
-        List<Move> captures = new ArrayList<>();
+    // Mate scores are stored relative to the node, so they stay right when the position
+    // is reached again at a different distance from the root
+    private static int scoreToTable(int score, int ply) {
+        if (score > MATE_THRESHOLD) return score + ply;
+        if (score < -MATE_THRESHOLD) return score - ply;
+        return score;
+    }
 
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board.pieceAt(row, col);
-                if (piece != null && piece.getColor() == color) {
-                    List<Move> pieceMoves = generateMovesForPiece(board, piece);
-                    for (Move move : pieceMoves) {
-                        if (move.capturedPiece != null || move.isEnPassant) {
-                            captures.add(move);
-                        }
-                    }
-                }
-            }
+    private static int scoreFromTable(int score, int ply) {
+        if (score > MATE_THRESHOLD) return score - ply;
+        if (score < -MATE_THRESHOLD) return score + ply;
+        return score;
+    }
+
+    // Reading the clock on every node costs more than the nodes themselves, so the time
+    // limit and the stop flag are only polled every STOP_CHECK_INTERVAL nodes
+    private boolean shouldStop() {
+        if (!stopped && (statistics.getNodes() & (STOP_CHECK_INTERVAL - 1)) == 0) {
+            stopped = stopRequested.get() == searchNumber || statistics.getNodes() >= nodeLimit || System.nanoTime() - deadline > 0;
         }
+        return stopped;
+    }
 
-        return captures;
+    /**
+     * Asks the running search to stop as soon as possible. Safe to call from any thread;
+     * findBestMove then returns the best move of the last completed iteration. Has no
+     * effect if no search is running, see {@link #stop(long)} to stop one not yet started.
+     */
+    public void stop() {
+        stop(searchNumber);
     }
 
-    private static int getMoveScore(Move move) {
-        int score = 0;
+    /**
+     * Asks a search to stop as soon as possible, whether it is running or has yet to
+     * start, so that a stop sent just before the search begins is not lost. Has no
+     * effect on other searches.
+     *
+     * @param search the search's number, from {@link #getNextSearch} before it started
+     */
+    public void stop(long search) {
+        stopRequested.accumulateAndGet(search, Math::max);
+    }
+
+    /**
+     * Returns the number the next search on this engine will have, for
+     * {@link #stop(long)}. Only meaningful on the thread that runs the searches.
+     */
+    public long getNextSearch() {
+        return searchNumber + 1;
+    }
+
+    private void updatePrincipalVariation(int ply, Move move) {
+        pvTable[ply][ply] = move;
+        int childLength = ply + 1 < MAX_PLY ? pvLength[ply + 1] : ply + 1;
+        for (int next = ply + 1; next < childLength; next++) {
+            pvTable[ply][next] = pvTable[ply + 1][next];
+        }
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private static boolean hasPiecesBesidesPawns(ChessBoard board, int color) {
+        long pawnsAndKing = board.getPieces(color, PieceType.PAWN) | board.getPieces(color, PieceType.KING);
+        return (board.getOccupancy(color) & ~pawnsAndKing) != 0;
+    }
+
+    private int quiescenceSearch(ChessBoard board, int alpha, int beta, int color, int depth) {
+        statistics.countQuiescenceNode();
+        if (shouldStop()) return 0;
+        int standPat = evaluate(board, color);
+
+        if (depth == 0) return standPat;
+        if (standPat >= beta) return beta;
+        alpha = Math.max(alpha, standPat);
+
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        List<Move> captures = new ArrayList<>();
+        MoveGenerator.generateCaptures(board, color, captures);
+        // Sort captures by value
+        orderMoves(board, captures, MAX_PLY, null);
+
+        for (Move move : captures) {
+            if (!move.isPromotion) {
+                // Losing captures cannot improve on standing pat
+                if (move.exchangeScore < 0) continue;
+                // Delta pruning: even winning the whole exchange cannot reach alpha
+                if (standPat + move.exchangeScore + deltaMargin <= alpha) continue;
+            }
+
+            makeMove(board, move);
+            if (Attacks.isInCheck(board, color)) {
+                unmakeMove(board, move);
+                continue;
+            }
+            int score = -quiescenceSearch(board, -beta, -alpha, opponent, depth - 1);
+            unmakeMove(board, move);
+            if (stopped) return 0;
 
-        // Prioritize captures using MVV-LVA (Most Valuable Victim - Least Valuable Attacker)
-        if (move.capturedPiece != null) {
-            int victimValue = PIECE_VALUES[move.capturedPiece.getType().getCode()];
-            int attackerValue = PIECE_VALUES[move.piece.getType().getCode()];
-            score += victimValue - attackerValue / 10;
+            if (score >= beta) return beta;
+            alpha = Math.max(alpha, score);
         }
+        return alpha;
+    }
+
+    private void orderMoves(ChessBoard board, List<Move> moves, int ply, Move previousMove) {
+        for (Move move : moves) {
+            move.orderScore = getMoveScore(board, move, ply, previousMove);
+        }
+        moves.sort((m1, m2) -> Integer.compare(m2.orderScore, m1.orderScore));
+    }
+
+    private int getMoveScore(ChessBoard board, Move move, int ply, Move previousMove) {
+        int score = move.capturedPiece != null || move.isEnPassant ? getCaptureScore(board, move)
+                : getQuietScore(move, ply, previousMove);
 
         // Prioritize promotions
         if (move.isPromotion) {
@@ -491,119 +1016,344 @@ public class EasyChessAI {
         return score;
     }
 
-    private static void makeMove(ChessBoard board, Move move) {
+    // Captures: MVV-LVA (Most Valuable Victim - Least Valuable Attacker) among those that
+    // do not lose material, while captures losing the exchange go after the quiet moves
+    private static int getCaptureScore(ChessBoard board, Move move) {
+        move.exchangeScore = staticExchange(board, move);
+        if (move.exchangeScore < 0) return move.exchangeScore;
+        int victimValue = move.isEnPassant ? PIECE_VALUES[PieceType.PAWN.getCode()]
+                : PIECE_VALUES[move.capturedPiece.getType().getCode()];
+        int attackerValue = PIECE_VALUES[move.piece.getType().getCode()];
+        return GOOD_CAPTURE_SCORE + victimValue - attackerValue / 10;
+    }
+
+    // Quiet moves: killers first, then the counter to the opponent's last move, then history
+    private int getQuietScore(Move move, int ply, Move previousMove) {
+        int key = moveKey(move);
+        if (ply < MAX_PLY && killerMoves[ply][0] == key) return KILLER_SCORES[0];
+        if (ply < MAX_PLY && killerMoves[ply][1] == key) return KILLER_SCORES[1];
+        if (previousMove != null && counterMoves[moveKey(previousMove)] == key) return COUNTER_MOVE_SCORE;
+        return history[move.piece.getColor()][move.fromRow * 8 + move.fromCol][move.toRow * 8 + move.toCol];
+    }
+
+    // Scoring for the staged MovePicker, which keeps captures and quiet moves apart
+    void scoreCaptures(ChessBoard board, List<Move> moves) {
+        for (Move move : moves) {
+            move.orderScore = getMoveScore(board, move, MAX_PLY, null);
+            if (move.isPromotion && move.capturedPiece == null) {
+                // Quiet promotions are generated with the captures and rank with the good ones
+                move.exchangeScore = 0;
+                move.orderScore += GOOD_CAPTURE_SCORE;
+            }
+        }
+    }
+
+    void scoreQuiets(List<Move> moves, Move previousMove) {
+        for (Move move : moves) {
+            move.orderScore = getQuietScore(move, MAX_PLY, previousMove) + (move.isCastling ? 50 : 0);
+        }
+    }
+
+    int getKiller(int ply, int slot) {
+        return ply < MAX_PLY ? killerMoves[ply][slot] : NO_MOVE;
+    }
+
+    /**
+     * Static exchange evaluation: the material the moving side nets on the target square
+     * if both sides keep recapturing with their least valuable attacker, each side
+     * free to stop whenever continuing would lose more.
+     */
+    static int staticExchange(ChessBoard board, Move move) {
+        int target = move.toRow * 8 + move.toCol;
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        occupied &= ~(1L << (move.fromRow * 8 + move.fromCol));
+        if (move.isEnPassant) {
+            occupied &= ~(1L << (move.fromRow * 8 + move.toCol));
+        }
+
+        int[] gain = new int[32];
+        gain[0] = move.isEnPassant ? PIECE_VALUES[PieceType.PAWN.getCode()]
+                : move.capturedPiece == null ? 0 : PIECE_VALUES[move.capturedPiece.getType().getCode()];
+        int attackerValue = PIECE_VALUES[move.piece.getType().getCode()];
+        int side = move.piece.getColor() == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        long attackers = Attacks.attackersTo(board, target, occupied) & occupied;
+
+        int depth = 0;
+        while (true) {
+            depth++;
+            // Score if the piece now on the target square gets captured
+            gain[depth] = attackerValue - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) break;
+
+            long sideAttackers = attackers & board.getOccupancy(side);
+            if (sideAttackers == 0) break;
+
+            // Recapture with the least valuable attacker, exposing any slider behind it
+            PieceType recapturer = null;
+            for (PieceType type : EXCHANGE_ORDER) {
+                long candidates = sideAttackers & board.getPieces(side, type);
+                if (candidates != 0) {
+                    occupied &= ~Long.lowestOneBit(candidates);
+                    recapturer = type;
+                    break;
+                }
+            }
+            attackerValue = PIECE_VALUES[recapturer.getCode()];
+            attackers = Attacks.attackersTo(board, target, occupied) & occupied;
+            side = side == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        }
+
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    static void makeMove(ChessBoard board, Move move) {
+        ChessPiece piece = move.piece;
+        move.pieceHadMoved = piece.hasMoved();
+        move.previousEnPassant = board.getEnPassantSquare();
+        board.setEnPassantSquare(-1);
+
         // Remove piece from old position
         board.removePiece(move.fromRow, move.fromCol);
 
         // Handle special moves
         if (move.isCastling) {
-            performCastling(board, (King) move.piece, move.toRow, move.toCol);
+            boolean kingSide = move.toCol > move.fromCol;
+            ChessPiece rook = board.pieceAt(move.toRow, kingSide ? 7 : 0);
+            move.rookHadMoved = rook.hasMoved();
+            board.removePiece(rook.getRow(), rook.getCol());
+            rook.moveTo(move.toRow, kingSide ? 5 : 3);
+            board.addPiece(rook);
+            piece.moveTo(move.toRow, move.toCol);
+            board.addPiece(piece);
         } else if (move.isEnPassant) {
-            // Move the pawn
-            move.piece.moveTo(move.toRow, move.toCol);
-            board.addPiece(move.piece);
-            // Remove captured pawn
-            int capturedPawnRow = move.piece.getColor() == ChessPiece.WHITE ? move.toRow + 1 : move.toRow - 1;
-            board.removePiece(capturedPawnRow, move.toCol);
+            // The captured pawn sits beside the moving pawn, on its starting row
+            move.enPassantVictim = board.pieceAt(move.fromRow, move.toCol);
+            board.removePiece(move.fromRow, move.toCol);
+            piece.moveTo(move.toRow, move.toCol);
+            board.addPiece(piece);
         } else {
-            // Regular move - remove captured piece if any, move piece
-            if (move.capturedPiece != null) {
-                board.removePiece(move.toRow, move.toCol);
-            }
-            move.piece.moveTo(move.toRow, move.toCol);
-            board.addPiece(move.piece);
+            // Regular move - addPiece replaces any captured piece on the target square
+            piece.moveTo(move.toRow, move.toCol);
+            board.addPiece(piece);
 
             // Handle pawn promotion
             if (move.isPromotion) {
                 // Replace pawn with queen (most common promotion)
-                board.removePiece(move.toRow, move.toCol);
-                Queen promotedQueen = new Queen(move.toRow, move.toCol, move.piece.getColor());
-                board.addPiece(promotedQueen);
+                move.promotedPiece = new Queen(move.toRow, move.toCol, piece.getColor());
+                board.addPiece(move.promotedPiece);
+            } else if (piece instanceof Pawn && Math.abs(move.toRow - move.fromRow) == 2) {
+                board.setEnPassantSquare((move.fromRow + move.toRow) / 2 * 8 + move.fromCol);
             }
         }
     }
 
-    private static void performCastling(ChessBoard board, King king, int newRow, int newCol) {
-        boolean kingSide = newCol > king.getCol();
-        int rookOldCol = kingSide ? 7 : 0;
-        int rookNewCol = kingSide ? 5 : 3;
+    static void unmakeMove(ChessBoard board, Move move) {
+        ChessPiece piece = move.piece;
 
-        // Move king
-        king.moveTo(newRow, newCol);
-        board.addPiece(king);
+        // Lift the moved (or promoted) piece off the target square and put it back
+        board.removePiece(move.toRow, move.toCol);
+        piece.moveTo(move.fromRow, move.fromCol);
+        piece.setHasMoved(move.pieceHadMoved);
+        board.addPiece(piece);
 
-        // Move rook
-        ChessPiece rook = board.pieceAt(newRow, rookOldCol);
-        if (rook != null) {
-            board.removePiece(newRow, rookOldCol);
-            rook.moveTo(newRow, rookNewCol);
+        if (move.isCastling) {
+            boolean kingSide = move.toCol > move.fromCol;
+            ChessPiece rook = board.pieceAt(move.toRow, kingSide ? 5 : 3);
+            board.removePiece(move.toRow, rook.getCol());
+            rook.moveTo(move.toRow, kingSide ? 7 : 0);
+            rook.setHasMoved(move.rookHadMoved);
             board.addPiece(rook);
+        } else if (move.isEnPassant) {
+            board.addPiece(move.enPassantVictim);
+            move.enPassantVictim = null;
+        } else if (move.capturedPiece != null) {
+            board.addPiece(move.capturedPiece);
         }
+        move.promotedPiece = null;
+
+        board.setEnPassantSquare(move.previousEnPassant);
     }
 
-    private static int evaluateBoard(ChessBoard board, int aiColor) {
-        int materialBalance = 0;
-        int positionalBalance = 0;
-        int aiPieces = 0;
-        int opponentPieces = 0;
+    // The network, when one is set and attached to the board, replaces the hand-crafted evaluation
+    private int evaluate(ChessBoard board, int color) {
+        NnueAccumulator accumulator = board.getAccumulator();
+        return accumulator != null ? accumulator.evaluate(color) : evaluateBoard(board, color, pawnHash);
+    }
 
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board.pieceAt(row, col);
-                if (piece != null) {
-                    int pieceValue = PIECE_VALUES[piece.getType().getCode()];
-                    int positionalValue = getPositionalValue(piece, row, col);
-
-                    if (piece.getColor() == aiColor) {
-                        materialBalance += pieceValue;
-                        positionalBalance += positionalValue;
-                        aiPieces++;
-                    } else {
-                        materialBalance -= pieceValue;
-                        positionalBalance -= positionalValue;
-                        opponentPieces++;
-                    }
-                }
-            }
-        }
+    // The pawn hash may be null to evaluate the pawn structure afresh, as the tuner does
+    static int evaluateBoard(ChessBoard board, int aiColor, PawnHashTable pawnHash) {
+        int opponentColor = aiColor == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+
+        // Material and piece-square totals are maintained incrementally by the board
+        int materialBalance = board.getMaterial(aiColor) - board.getMaterial(opponentColor);
+        int positionalBalance = board.getPositional(aiColor) - board.getPositional(opponentColor);
         int score = materialBalance + positionalBalance / 10;
 
-        // Mobility evaluation - prefer having more legal moves
-        int aiMobility = generateAllMoves(board, aiColor).size();
-        int opponentColor = aiColor == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
-        int opponentMobility = generateAllMoves(board, opponentColor).size();
-        score += (aiMobility - opponentMobility) * 5; // Reduced weight to prevent mobility obsession
+        // Mobility evaluation - prefer pieces that attack many safe squares
+        score += evaluateMobility(board, aiColor) - evaluateMobility(board, opponentColor);
+
+        // Pawn structure, shared by both sides' entries in the pawn hash
+        long pawnEntry = probePawnStructure(board, pawnHash);
+        int pawnStructure = (int) pawnEntry;
+        score += aiColor == ChessPiece.WHITE ? pawnStructure : -pawnStructure;
 
         // King safety evaluation
-        if (GameLogic.isInCheck(board, opponentColor)) {
-            score += 50; // Bonus for putting opponent in check
+        int totalPieces = board.getPieceCount(aiColor) + board.getPieceCount(opponentColor);
+        if (totalPieces >= 10) {
+            score += getKingShield(board, pawnEntry, aiColor) - getKingShield(board, pawnEntry, opponentColor);
         }
-        if (GameLogic.isInCheck(board, aiColor)) {
-            score -= 50; // Penalty for being in check
+        if (Attacks.isInCheck(board, opponentColor)) {
+            score += checkBonus; // Bonus for putting opponent in check
+        }
+        if (Attacks.isInCheck(board, aiColor)) {
+            score -= checkBonus; // Penalty for being in check
         }
 
         // Endgame evaluation - encourage king activity when few pieces remain
-        int totalPieces = aiPieces + opponentPieces;
         if (totalPieces < 10) { // Endgame
-            // Find kings and evaluate their activity
-            for (int row = 0; row < 8; row++) {
-                for (int col = 0; col < 8; col++) {
-                    ChessPiece piece = board.pieceAt(row, col);
-                    if (piece instanceof King) {
-                        int kingActivity = (int) (Math.abs(3.5 - row) + Math.abs(3.5 - col));
-                        if (piece.getColor() == aiColor) {
-                            score -= (int) (kingActivity * 10); // Encourage AI king to be active
-                        } else {
-                            score += (int) (kingActivity * 10); // Discourage opponent king activity
-                        }
-                    }
+            // Evaluate king activity by distance from the centre
+            score -= kingCentreDistance(board, aiColor) * 10; // Encourage AI king to be active
+            score += kingCentreDistance(board, opponentColor) * 10; // Discourage opponent king activity
+        }
+        return score;
+    }
+
+    // Pseudo-legal mobility: attacked squares not held by own pieces or covered by enemy pawns
+    private static int evaluateMobility(ChessBoard board, int color) {
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        long safeSquares = getSafeSquares(board, color);
+
+        int mobility = 0;
+        for (PieceType type : MOBILE_PIECES) {
+            mobility += MOBILITY_WEIGHTS[type.getCode()] * countMobility(board, color, type, occupied, safeSquares);
+        }
+        return mobility;
+    }
+
+    static long getSafeSquares(ChessBoard board, int color) {
+        int opponentColor = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        return ~board.getOccupancy(color) & ~Attacks.pawnAttacks(board, opponentColor);
+    }
+
+    static int countMobility(ChessBoard board, int color, PieceType type, long occupied, long safeSquares) {
+        int squares = 0;
+        long pieces = board.getPieces(color, type);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            squares += Long.bitCount(Attacks.attacksFrom(type, color, square, occupied) & safeSquares);
+        }
+        return squares;
+    }
+
+    // Pawn hash entry layout: bits 0-31 hold the structure score from white's view,
+    // then four 6-bit shield scores indexed by color * 2 + wing (0 kingside, 1 queenside)
+    private static long probePawnStructure(ChessBoard board, PawnHashTable pawnHash) {
+        long key = board.getPawnKey();
+        long entry = pawnHash != null ? pawnHash.probe(key) : PawnHashTable.MISS;
+        if (entry == PawnHashTable.MISS) {
+            int structure = evaluatePawnStructure(board, ChessPiece.WHITE) - evaluatePawnStructure(board, ChessPiece.BLACK);
+            entry = structure & 0xFFFFFFFFL;
+            for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+                entry |= (long) evaluatePawnShield(board, color, true) << (32 + 6 * (color * 2));
+                entry |= (long) evaluatePawnShield(board, color, false) << (32 + 6 * (color * 2 + 1));
+            }
+            if (pawnHash != null) {
+                pawnHash.store(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    private static int evaluatePawnStructure(ChessBoard board, int color) {
+        int opponentColor = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        long ownPawns = board.getPieces(color, PieceType.PAWN);
+        long enemyPawns = board.getPieces(opponentColor, PieceType.PAWN);
+        long enemyPawnAttacks = Attacks.pawnAttacks(board, opponentColor);
+        int score = 0;
+
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(ownPawns & FILE_MASKS[file]);
+            if (count > 1) {
+                score -= DOUBLED_PAWN_PENALTY * (count - 1);
+            }
+        }
+
+        long pawns = ownPawns;
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            int row = square / 8;
+            int col = square % 8;
+            long ahead = FORWARD_MASKS[color][row];
+
+            long neighbours = ownPawns & ADJACENT_FILE_MASKS[col];
+            if (neighbours == 0) {
+                score -= ISOLATED_PAWN_PENALTY;
+            } else if ((neighbours & ~ahead) == 0) {
+                // Every neighbour has already advanced past it; backward if its stop square is guarded
+                int stopSquare = square + (color == ChessPiece.WHITE ? -8 : 8);
+                if ((enemyPawnAttacks & (1L << stopSquare)) != 0) {
+                    score -= BACKWARD_PAWN_PENALTY;
                 }
             }
+
+            if ((enemyPawns & (FILE_MASKS[col] | ADJACENT_FILE_MASKS[col]) & ahead) == 0) {
+                score += PASSED_PAWN_BONUS[color == ChessPiece.WHITE ? 7 - row : row];
+            }
         }
         return score;
     }
 
-    private static int getPositionalValue(ChessPiece piece, int row, int col) {
+    private static int evaluatePawnShield(ChessBoard board, int color, boolean kingSide) {
+        long ownPawns = board.getPieces(color, PieceType.PAWN);
+        int homeRow = color == ChessPiece.WHITE ? 6 : 1;
+        int nextRow = color == ChessPiece.WHITE ? 5 : 2;
+        int shield = 0;
+        for (int file = kingSide ? 5 : 0; file <= (kingSide ? 7 : 2); file++) {
+            if ((ownPawns & (1L << (homeRow * 8 + file))) != 0) {
+                shield += SHIELD_PAWN_BONUS;
+            } else if ((ownPawns & (1L << (nextRow * 8 + file))) != 0) {
+                shield += ADVANCED_SHIELD_PAWN_BONUS;
+            }
+        }
+        return shield;
+    }
+
+    // Shield in front of a castled king; a king in the centre gets none
+    private static int getKingShield(ChessBoard board, long pawnEntry, int color) {
+        int square = board.getKingSquare(color);
+        if (square < 0) return 0;
+        int file = square % 8;
+        if (file >= 3 && file <= 4) return 0;
+        int wing = file >= 5 ? 0 : 1;
+        return (int) (pawnEntry >>> (32 + 6 * (color * 2 + wing))) & 0x3F;
+    }
+
+    private static int kingCentreDistance(ChessBoard board, int color) {
+        int square = board.getKingSquare(color);
+        if (square < 0) return 0;
+        return (int) (Math.abs(3.5 - square / 8) + Math.abs(3.5 - square % 8));
+    }
+
+    /**
+     * Returns the distance to mate in plies for a mate score: positive when the side the
+     * score belongs to delivers mate, negative when it gets mated, 0 for other scores.
+     */
+    public static int getMateDistance(int score) {
+        if (score > MATE_THRESHOLD) return INFINITY - score;
+        if (score < -MATE_THRESHOLD) return -(INFINITY + score);
+        return 0;
+    }
+
+    static int getPieceValue(PieceType type) {
+        return PIECE_VALUES[type.getCode()];
+    }
+
+    static int getPositionalValue(ChessPiece piece, int row, int col) {
         int adjustedRow = piece.getColor() == ChessPiece.WHITE ? 7 - row : row;
         return switch (piece.getType()) {
             case PAWN -> PAWN_TABLE[adjustedRow][col];
@@ -0,0 +1,106 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects running totals from an engine's per-iteration info and exposes them as a
+ * platform MXBean under {@code ph.edu.dlsu.lbycpei.chessapp:type=Engine,name=...}.
+ */
+public class EngineMonitor implements EngineMonitorMXBean {
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong totalNodes = new AtomicLong();
+    private final AtomicLong totalSearchMillis = new AtomicLong();
+    private volatile SearchInfo lastInfo;
+
+    /**
+     * Attaches a monitor to an engine and registers it with the platform MBean server.
+     *
+     * @param engine the engine to watch
+     * @param name   the name the MXBean is registered under
+     * @return the registered monitor
+     */
+    public static EngineMonitor register(EasyChessAI engine, String name) {
+        EngineMonitor monitor = new EngineMonitor();
+        try {
+            ObjectName objectName = new ObjectName("ph.edu.dlsu.lbycpei.chessapp:type=Engine,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register engine monitor " + name, e);
+        }
+        engine.addInfoListener(monitor::recordIteration);
+        engine.addSearchListener(monitor::recordSearch);
+        return monitor;
+    }
+
+    void recordIteration(SearchInfo info) {
+        lastInfo = info;
+    }
+
+    // Totals only grow once per search, so iterations are not counted twice
+    void recordSearch(SearchInfo info) {
+        searches.incrementAndGet();
+        totalNodes.addAndGet(info.getNodes());
+        totalSearchMillis.addAndGet(info.getElapsedMillis());
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.get();
+    }
+
+    @Override
+    public long getTotalNodes() {
+        return totalNodes.get();
+    }
+
+    @Override
+    public long getTotalSearchMillis() {
+        return totalSearchMillis.get();
+    }
+
+    @Override
+    public long getNodesPerSecond() {
+        long millis = totalSearchMillis.get();
+        return millis == 0 ? 0 : totalNodes.get() * 1000 / millis;
+    }
+
+    @Override
+    public int getLastDepth() {
+        SearchInfo info = lastInfo;
+        return info == null ? 0 : info.getDepth();
+    }
+
+    @Override
+    public int getLastScore() {
+        SearchInfo info = lastInfo;
+        return info == null ? 0 : info.getScore();
+    }
+
+    @Override
+    public double getLastHashHitRate() {
+        SearchInfo info = lastInfo;
+        return info == null ? 0.0 : info.getHashHitRate();
+    }
+
+    @Override
+    public double getLastFirstMoveCutoffRate() {
+        SearchInfo info = lastInfo;
+        return info == null ? 0.0 : info.getFirstMoveCutoffRate();
+    }
+
+    @Override
+    public String getLastPrincipalVariation() {
+        SearchInfo info = lastInfo;
+        if (info == null) return "";
+        StringBuilder pv = new StringBuilder();
+        for (EasyChessAI.Move move : info.getPrincipalVariation()) {
+            if (!pv.isEmpty()) pv.append(' ');
+            pv.append(move);
+        }
+        return pv.toString();
+    }
+}
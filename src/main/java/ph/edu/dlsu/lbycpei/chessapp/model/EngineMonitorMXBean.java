@@ -0,0 +1,26 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+/**
+ * Management interface for {@link EngineMonitor}, readable from JConsole or any other
+ * JMX client while the application runs.
+ */
+public interface EngineMonitorMXBean {
+
+    long getSearches();
+
+    long getTotalNodes();
+
+    long getTotalSearchMillis();
+
+    long getNodesPerSecond();
+
+    int getLastDepth();
+
+    int getLastScore();
+
+    double getLastHashHitRate();
+
+    double getLastFirstMoveCutoffRate();
+
+    String getLastPrincipalVariation();
+}
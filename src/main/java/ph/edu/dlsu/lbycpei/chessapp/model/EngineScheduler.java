@@ -0,0 +1,380 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.utils.LatencyHistogram;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs engine searches for many games on a fixed number of worker threads. Each game
+ * has its own queue and a time budget per move, and the workers take turns between the
+ * games by deficit round-robin: every round a waiting game earns a quantum of engine
+ * time and is served once it has earned its move's budget. A game that asks for long
+ * searches therefore waits longer between them, but cannot delay the others by more
+ * than one budget per worker, however many requests it queues.
+ * <p>
+ * The number of queued requests is bounded; once it is reached, {@link GameQueue#submit}
+ * refuses new ones instead of letting the wait grow without limit.
+ */
+public class EngineScheduler implements EngineSchedulerMXBean {
+
+    // Leaves a core for the JavaFX thread when there is more than one. The workers share
+    // one hash table, so what one of them searched, or loaded from the learning file, helps all
+    private static final TranspositionTable DEFAULT_TABLE = new TranspositionTable(EasyChessAI.DEFAULT_HASH_ENTRIES);
+    private static final EngineScheduler DEFAULT = new EngineScheduler(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 256, 100,
+            () -> new EasyChessAI(DEFAULT_TABLE));
+
+    private record Request(ChessBoard board, int color, int depth, long enqueuedNanos,
+                           CompletableFuture<EasyChessAI.Move> result) { }
+
+    /**
+     * One game's queue of searches. Requests of the same game are searched one at a
+     * time, in the order they were submitted.
+     */
+    public final class GameQueue {
+        private final String name;
+        private final ArrayDeque<Request> queue = new ArrayDeque<>();
+        private long timeBudgetMillis;
+        private long deficitMillis;
+        private boolean active;     // in the round-robin rotation
+        private EasyChessAI running; // engine searching for this game, if any
+        private long runningSearch;  // that engine's number for the search
+        private boolean closed;
+
+        private GameQueue(String name, long timeBudgetMillis) {
+            this.name = name;
+            this.timeBudgetMillis = timeBudgetMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTimeBudget() {
+            synchronized (EngineScheduler.this) {
+                return timeBudgetMillis;
+            }
+        }
+
+        /**
+         * Sets the search time per move for requests not yet started.
+         *
+         * @param millis the budget in milliseconds
+         */
+        public void setTimeBudget(long millis) {
+            if (millis <= 0) throw new IllegalArgumentException("Time budget must be positive: " + millis);
+            synchronized (EngineScheduler.this) {
+                timeBudgetMillis = millis;
+            }
+        }
+
+        /**
+         * Queues a search for the best move. The board is searched by a worker thread,
+         * so it must not be changed until the result is complete; pass a copy.
+         *
+         * @param board the position
+         * @param color the side to move
+         * @param depth the maximum depth in plies
+         * @return the move, or null if the side to move has no legal moves; completes on
+         *         a worker thread, or is cancelled by {@link #cancel}
+         * @throws RejectedExecutionException if the scheduler's queue is full or the
+         *                                    game was closed
+         */
+        public CompletableFuture<EasyChessAI.Move> submit(ChessBoard board, int color, int depth) {
+            CompletableFuture<EasyChessAI.Move> result = new CompletableFuture<>();
+            synchronized (EngineScheduler.this) {
+                if (closed || shutdown) {
+                    throw new RejectedExecutionException("Game " + name + " is closed");
+                }
+                if (queueDepth >= capacity) {
+                    rejected++;
+                    throw new RejectedExecutionException("Engine queue is full (" + capacity + " requests)");
+                }
+                queue.add(new Request(board, color, depth, System.nanoTime(), result));
+                queueDepth++;
+                maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+                if (!active && running == null) {
+                    active = true;
+                    rotation.add(this);
+                }
+                EngineScheduler.this.notifyAll();
+            }
+            return result;
+        }
+
+        /**
+         * Drops the queued requests of this game and stops its running search, e.g.
+         * when the game is reset. Their results are cancelled, except for a running
+         * search that completes with the best move found so far.
+         */
+        public void cancel() {
+            List<Request> dropped;
+            synchronized (EngineScheduler.this) {
+                dropped = new ArrayList<>(queue);
+                queueDepth -= queue.size();
+                queue.clear();
+                deficitMillis = 0;
+                if (active) {
+                    active = false;
+                    rotation.remove(this);
+                }
+                if (running != null) {
+                    // Also reaches a search the worker has taken but not yet started
+                    running.stop(runningSearch);
+                }
+            }
+            for (Request request : dropped) {
+                request.result().cancel(false);
+            }
+        }
+
+        /**
+         * Cancels everything for this game and refuses further requests.
+         */
+        public void close() {
+            synchronized (EngineScheduler.this) {
+                closed = true;
+                games--;
+            }
+            cancel();
+        }
+    }
+
+    private final int capacity;
+    private final long quantumMillis;
+    private final List<Thread> workers = new ArrayList<>();
+    private final List<EasyChessAI> engines = new ArrayList<>();
+
+    // Games with queued requests, in round-robin order; guarded by this
+    private final ArrayDeque<GameQueue> rotation = new ArrayDeque<>();
+    private int queueDepth;
+    private int maxQueueDepth;
+    private int games;
+    private long rejected;
+    private boolean shutdown;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+    /**
+     * Starts the worker threads, each with its own engine.
+     *
+     * @param workers       the number of searches run at once
+     * @param capacity      the most requests queued over all games
+     * @param quantumMillis engine time a waiting game earns per round
+     * @param engines       creates the engine of each worker
+     */
+    public EngineScheduler(int workers, int capacity, long quantumMillis, Supplier<EasyChessAI> engines) {
+        if (workers < 1 || capacity < 1 || quantumMillis < 1) {
+            throw new IllegalArgumentException("Workers, capacity and quantum must be positive");
+        }
+        this.capacity = capacity;
+        this.quantumMillis = quantumMillis;
+        for (int i = 0; i < workers; i++) {
+            EasyChessAI engine = engines.get();
+            this.engines.add(engine);
+            Thread worker = new Thread(() -> work(engine), "engine-worker-" + (i + 1));
+            worker.setDaemon(true);
+            // Searches yield to the user interface when the machine is busy
+            worker.setPriority(Thread.NORM_PRIORITY - 1);
+            worker.start();
+            this.workers.add(worker);
+        }
+    }
+
+    /**
+     * Returns the scheduler shared by the application, with one worker per core but one.
+     */
+    public static EngineScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Applies a setting, such as an evaluation network, to every worker's engine. Waits
+     * for searches in progress to end first.
+     */
+    public void configureEngines(Consumer<EasyChessAI> configuration) {
+        for (EasyChessAI engine : engines) {
+            synchronized (engine) {
+                configuration.accept(engine);
+            }
+        }
+    }
+
+    /**
+     * Returns the workers' engines, e.g. to attach listeners. Searching on them directly
+     * would race with the workers; use {@link GameQueue#submit}.
+     */
+    public List<EasyChessAI> getEngines() {
+        return Collections.unmodifiableList(engines);
+    }
+
+    /**
+     * Registers this scheduler with the platform MBean server under
+     * {@code ph.edu.dlsu.lbycpei.chessapp:type=EngineScheduler,name=...}.
+     */
+    public void registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("ph.edu.dlsu.lbycpei.chessapp:type=EngineScheduler,name="
+                    + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register engine scheduler " + name, e);
+        }
+    }
+
+    /**
+     * Opens a queue for one game.
+     *
+     * @param name             shown in error messages
+     * @param timeBudgetMillis search time per move
+     */
+    public synchronized GameQueue openGame(String name, long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) throw new IllegalArgumentException("Time budget must be positive: " + timeBudgetMillis);
+        games++;
+        return new GameQueue(name, timeBudgetMillis);
+    }
+
+    /**
+     * Stops the workers once their current searches end. Queued requests are cancelled.
+     */
+    public void shutdown() {
+        List<GameQueue> waiting;
+        synchronized (this) {
+            shutdown = true;
+            waiting = new ArrayList<>(rotation);
+            notifyAll();
+        }
+        for (GameQueue game : waiting) {
+            game.cancel();
+        }
+    }
+
+    private void work(EasyChessAI engine) {
+        while (true) {
+            GameQueue game;
+            Request request;
+            long budget;
+            synchronized (this) {
+                while (rotation.isEmpty() && !shutdown) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (shutdown) return;
+                game = next();
+                game.active = false; // out of the rotation until its search ends
+                request = game.queue.poll();
+                queueDepth--;
+                budget = game.timeBudgetMillis;
+                game.deficitMillis -= budget;
+                game.running = engine;
+                game.runningSearch = engine.getNextSearch();
+            }
+
+            waitTimes.record(System.nanoTime() - request.enqueuedNanos());
+            long start = System.nanoTime();
+            try {
+                EasyChessAI.Move move;
+                synchronized (engine) {
+                    move = engine.findBestMove(request.board(), request.color(), request.depth(), budget);
+                }
+                request.result().complete(move);
+            } catch (RuntimeException e) {
+                request.result().completeExceptionally(e);
+            }
+            completed.incrementAndGet();
+
+            synchronized (this) {
+                game.running = null;
+                if (game.queue.isEmpty()) {
+                    game.deficitMillis = 0;
+                } else if (!game.active) {
+                    // Searches that end early, e.g. at their depth limit, are only charged what they used
+                    long usedMillis = (System.nanoTime() - start) / 1_000_000;
+                    game.deficitMillis = Math.min(game.deficitMillis + Math.max(0, budget - usedMillis), game.timeBudgetMillis);
+                    game.active = true;
+                    rotation.add(game);
+                }
+            }
+        }
+    }
+
+    // Deficit round-robin: each game earns a quantum on its turn and is served once
+    // it has earned its move's budget
+    private GameQueue next() {
+        while (true) {
+            GameQueue game = rotation.poll();
+            game.deficitMillis += quantumMillis;
+            if (game.deficitMillis >= game.timeBudgetMillis) {
+                return game;
+            }
+            rotation.add(game);
+        }
+    }
+
+    @Override
+    public int getWorkers() {
+        return workers.size();
+    }
+
+    @Override
+    public synchronized int getGames() {
+        return games;
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    @Override
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public long getWaitTimeP50Millis() {
+        return waitTimes.getPercentile(50) / 1_000_000;
+    }
+
+    @Override
+    public long getWaitTimeP99Millis() {
+        return waitTimes.getPercentile(99) / 1_000_000;
+    }
+
+    @Override
+    public long getWaitTimeMaxMillis() {
+        return waitTimes.getMax() / 1_000_000;
+    }
+
+    /**
+     * Returns how long requests waited in the queue before a worker took them.
+     */
+    LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+}
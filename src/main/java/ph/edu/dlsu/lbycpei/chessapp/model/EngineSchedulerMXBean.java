@@ -0,0 +1,26 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+/**
+ * Management interface for {@link EngineScheduler}, readable from JConsole or any other
+ * JMX client while the application runs.
+ */
+public interface EngineSchedulerMXBean {
+
+    int getWorkers();
+
+    int getGames();
+
+    int getQueueDepth();
+
+    int getMaxQueueDepth();
+
+    long getCompleted();
+
+    long getRejected();
+
+    long getWaitTimeP50Millis();
+
+    long getWaitTimeP99Millis();
+
+    long getWaitTimeMaxMillis();
+}
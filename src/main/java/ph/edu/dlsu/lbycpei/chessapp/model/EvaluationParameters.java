@@ -0,0 +1,228 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.PieceType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The tunable terms of the hand-crafted evaluation as one flat vector of integers:
+ * piece values, the pawn, knight, bishop and king piece-square tables, mobility weights
+ * and the check bonus. The vector can be read from and written to the engine, and saved
+ * to or loaded from a text file with one named line per group, e.g.
+ * <pre>
+ * pieceValues 100 500 300 300 900 10000
+ * checkBonus 50
+ * </pre>
+ * The evaluation is linear in these terms, so {@link #extractFeatures} can describe a
+ * position as the coefficient each term is multiplied by, which is what a tuner needs.
+ * <p>
+ * Boards add up material and piece-square scores as pieces are placed, so new
+ * parameters must be applied before any board is created, i.e. at startup.
+ */
+public final class EvaluationParameters {
+
+    public static final int PIECE_VALUES = 0;
+    public static final int PAWN_TABLE = PIECE_VALUES + 6;
+    public static final int KNIGHT_TABLE = PAWN_TABLE + 64;
+    public static final int BISHOP_TABLE = KNIGHT_TABLE + 64;
+    public static final int KING_TABLE = BISHOP_TABLE + 64;
+    public static final int MOBILITY_WEIGHTS = KING_TABLE + 64;
+    public static final int CHECK_BONUS = MOBILITY_WEIGHTS + 6;
+    public static final int COUNT = CHECK_BONUS + 1;
+
+    /** Upper bound on the number of features {@link #extractFeatures} reports for one position. */
+    public static final int MAX_FEATURES = 64;
+
+    // Piece-square totals are divided by this in the evaluation
+    private static final int POSITIONAL_DIVISOR = 10;
+
+    private static final String[] NAMES = {
+            "pieceValues", "pawnTable", "knightTable", "bishopTable", "kingTable", "mobilityWeights", "checkBonus"
+    };
+    private static final int[] OFFSETS = {
+            PIECE_VALUES, PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, KING_TABLE, MOBILITY_WEIGHTS, CHECK_BONUS, COUNT
+    };
+
+    /**
+     * Returns the engine's current evaluation terms.
+     */
+    public static int[] get() {
+        int[] values = new int[COUNT];
+        System.arraycopy(EasyChessAI.PIECE_VALUES, 0, values, PIECE_VALUES, 6);
+        copyTable(EasyChessAI.PAWN_TABLE, values, PAWN_TABLE);
+        copyTable(EasyChessAI.KNIGHT_TABLE, values, KNIGHT_TABLE);
+        copyTable(EasyChessAI.BISHOP_TABLE, values, BISHOP_TABLE);
+        copyTable(EasyChessAI.KING_TABLE, values, KING_TABLE);
+        System.arraycopy(EasyChessAI.MOBILITY_WEIGHTS, 0, values, MOBILITY_WEIGHTS, 6);
+        values[CHECK_BONUS] = EasyChessAI.checkBonus;
+        return values;
+    }
+
+    /**
+     * Replaces the engine's evaluation terms. Call this before creating any board.
+     *
+     * @param values a vector of {@link #COUNT} terms
+     */
+    public static void set(int[] values) {
+        if (values.length != COUNT) {
+            throw new IllegalArgumentException("Expected " + COUNT + " parameters: " + values.length);
+        }
+        System.arraycopy(values, PIECE_VALUES, EasyChessAI.PIECE_VALUES, 0, 6);
+        loadTable(values, PAWN_TABLE, EasyChessAI.PAWN_TABLE);
+        loadTable(values, KNIGHT_TABLE, EasyChessAI.KNIGHT_TABLE);
+        loadTable(values, BISHOP_TABLE, EasyChessAI.BISHOP_TABLE);
+        loadTable(values, KING_TABLE, EasyChessAI.KING_TABLE);
+        System.arraycopy(values, MOBILITY_WEIGHTS, EasyChessAI.MOBILITY_WEIGHTS, 0, 6);
+        EasyChessAI.checkBonus = values[CHECK_BONUS];
+    }
+
+    private static void copyTable(int[][] table, int[] values, int offset) {
+        for (int row = 0; row < 8; row++) {
+            System.arraycopy(table[row], 0, values, offset + row * 8, 8);
+        }
+    }
+
+    private static void loadTable(int[] values, int offset, int[][] table) {
+        for (int row = 0; row < 8; row++) {
+            System.arraycopy(values, offset + row * 8, table[row], 0, 8);
+        }
+    }
+
+    /**
+     * Returns how much one unit of a term is worth in centipawns. Piece-square entries
+     * count a tenth, the rest count fully.
+     */
+    public static double getScale(int index) {
+        return index >= PAWN_TABLE && index < MOBILITY_WEIGHTS ? 1.0 / POSITIONAL_DIVISOR : 1.0;
+    }
+
+    /**
+     * Checks whether tuning may change a term. The king's value never affects the score,
+     * since each side always has exactly one king.
+     */
+    public static boolean isTunable(int index) {
+        return index != PIECE_VALUES + PieceType.KING.getCode();
+    }
+
+    /**
+     * Describes a position as the terms its evaluation uses, from white's point of view:
+     * the evaluation equals the sum of each term times its count times its
+     * {@link #getScale scale}, plus terms that are not tunable.
+     *
+     * @param board   the position
+     * @param indices receives the index of each term that occurs, at least {@link #MAX_FEATURES} long
+     * @param counts  receives how often each term counts for white minus for black
+     * @return the number of entries written
+     */
+    public static int extractFeatures(ChessBoard board, int[] indices, int[] counts) {
+        int[] dense = new int[COUNT];
+        for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+            int sign = color == ChessPiece.WHITE ? 1 : -1;
+            long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+            long safeSquares = EasyChessAI.getSafeSquares(board, color);
+            for (PieceType type : PieceType.values()) {
+                long pieces = board.getPieces(color, type);
+                dense[PIECE_VALUES + type.getCode()] += sign * Long.bitCount(pieces);
+                int table = tableOffset(type);
+                while (table >= 0 && pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    int adjustedRow = color == ChessPiece.WHITE ? 7 - square / 8 : square / 8;
+                    dense[table + adjustedRow * 8 + square % 8] += sign;
+                }
+            }
+            for (PieceType type : EasyChessAI.MOBILE_PIECES) {
+                dense[MOBILITY_WEIGHTS + type.getCode()] += sign
+                        * EasyChessAI.countMobility(board, color, type, occupied, safeSquares);
+            }
+            if (Attacks.isInCheck(board, color)) {
+                dense[CHECK_BONUS] -= sign;
+            }
+        }
+
+        int features = 0;
+        for (int i = 0; i < COUNT && features < indices.length; i++) {
+            if (dense[i] != 0) {
+                indices[features] = i;
+                counts[features++] = dense[i];
+            }
+        }
+        return features;
+    }
+
+    private static int tableOffset(PieceType type) {
+        return switch (type) {
+            case PAWN -> PAWN_TABLE;
+            case KNIGHT -> KNIGHT_TABLE;
+            case BISHOP -> BISHOP_TABLE;
+            case KING -> KING_TABLE;
+            case ROOK, QUEEN -> -1;
+        };
+    }
+
+    /**
+     * Returns the hand-crafted evaluation of a position from white's point of view.
+     */
+    public static int evaluate(ChessBoard board) {
+        // Without a pawn hash, so parameters set since the last call always take effect
+        return EasyChessAI.evaluateBoard(board, ChessPiece.WHITE, null);
+    }
+
+    /**
+     * Reads a parameter file. Groups missing from the file keep the engine's current
+     * values, so a file may hold only the terms that were tuned.
+     *
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static int[] load(Path path) throws IOException {
+        int[] values = get();
+        List<String> lines = Files.readAllLines(path);
+        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
+            String line = lines.get(lineNumber - 1).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split("\\s+");
+            int group = Arrays.asList(NAMES).indexOf(fields[0]);
+            int length = group < 0 ? 0 : OFFSETS[group + 1] - OFFSETS[group];
+            if (group < 0 || fields.length != length + 1) {
+                throw new IOException(path + ":" + lineNumber + ": unknown name or wrong number of values");
+            }
+            try {
+                for (int i = 0; i < length; i++) {
+                    values[OFFSETS[group] + i] = Integer.parseInt(fields[i + 1]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ":" + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes a parameter file that {@link #load} reads back, one line per group.
+     */
+    public static void save(Path path, int[] values) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (int group = 0; group < NAMES.length; group++) {
+                StringBuilder line = new StringBuilder(NAMES[group]);
+                for (int i = OFFSETS[group]; i < OFFSETS[group + 1]; i++) {
+                    line.append(' ').append(values[i]);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    private EvaluationParameters() {
+        // Not meant for instantiation
+    }
+}
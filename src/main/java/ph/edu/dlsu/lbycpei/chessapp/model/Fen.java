@@ -0,0 +1,410 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: piece placement, side to
+ * move, castling rights, en passant square, halfmove clock and move number. The two
+ * clocks may be missing, as in EPD, and then default to 0 and 1.
+ * <p>
+ * Parsing works on any {@link CharSequence} in a single pass without splitting it into
+ * strings, and {@link #readAll} reuses one board and one line buffer for a whole file,
+ * so loading millions of positions allocates little beyond the pieces themselves.
+ * (Recycling the piece objects as well was tried and measured slower: short-lived
+ * pieces are cheaper for the garbage collector than old ones stored into the board.)
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "prnbqk"; // indexed by PieceType code
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+
+    // Castling right bits
+    private static final int WHITE_KING_SIDE = 1;
+    private static final int WHITE_QUEEN_SIDE = 2;
+    private static final int BLACK_KING_SIDE = 4;
+    private static final int BLACK_QUEEN_SIDE = 8;
+
+    /**
+     * Sets a board to the position a FEN string describes. Text after the last field,
+     * such as EPD operations, is ignored.
+     *
+     * @param fen   the FEN string
+     * @param board the board to set up
+     * @return the index just past the last field read
+     * @throws IllegalArgumentException if the string is not valid FEN, or a side does not
+     *                                  have exactly one king, or a pawn stands on the
+     *                                  first or eighth rank; the board is left unchanged
+     *                                  in that case
+     */
+    public static int parse(CharSequence fen, ChessBoard board) {
+        return new Parser().parse(fen, board);
+    }
+
+    /**
+     * Describes a board's position as a FEN string.
+     */
+    public static String toFen(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(90);
+        append(board, fen);
+        return fen.toString();
+    }
+
+    /**
+     * Appends a board's position in FEN, so many positions can be written through one
+     * builder.
+     */
+    public static void append(ChessBoard board, StringBuilder out) {
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = board.pieceAt(row, col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(piece.getType().getCode());
+                out.append(piece.getColor() == ChessPiece.WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) out.append((char) ('0' + empty));
+            if (row < 7) out.append('/');
+        }
+
+        out.append(board.getSideToMove() == ChessPiece.WHITE ? " w " : " b ");
+
+        int castling = castlingRights(board);
+        if (castling == 0) out.append('-');
+        if ((castling & WHITE_KING_SIDE) != 0) out.append('K');
+        if ((castling & WHITE_QUEEN_SIDE) != 0) out.append('Q');
+        if ((castling & BLACK_KING_SIDE) != 0) out.append('k');
+        if ((castling & BLACK_QUEEN_SIDE) != 0) out.append('q');
+
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0) {
+            out.append(" -");
+        } else {
+            out.append(' ').append((char) ('a' + enPassant % 8)).append((char) ('8' - enPassant / 8));
+        }
+        out.append(' ').append(board.getHalfmoveClock()).append(' ').append(board.getFullmoveNumber());
+    }
+
+    // A right exists while the king and that rook are unmoved on their starting squares
+    private static int castlingRights(ChessBoard board) {
+        int rights = 0;
+        for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+            int row = color == ChessPiece.WHITE ? 7 : 0;
+            ChessPiece king = board.pieceAt(row, 4);
+            if (!(king instanceof King) || king.getColor() != color || king.hasMoved()) continue;
+            ChessPiece rook = board.pieceAt(row, 7);
+            if (rook instanceof Rook && rook.getColor() == color && !rook.hasMoved()) {
+                rights |= color == ChessPiece.WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+            }
+            rook = board.pieceAt(row, 0);
+            if (rook instanceof Rook && rook.getColor() == color && !rook.hasMoved()) {
+                rights |= color == ChessPiece.WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * Reads a stream of lines that each start with a FEN, such as an EPD file or a
+     * labeled training set, and hands every position to an action. The action gets the
+     * same board every time, along with the rest of the line after the FEN; neither
+     * may be kept after the action returns. Blank lines and lines starting with '#'
+     * are skipped. The stream is read as ASCII and is not closed.
+     *
+     * @param in     the input
+     * @param action called with the board and the text after the FEN
+     * @return the number of positions read
+     * @throws IOException if reading fails or a line is not valid FEN
+     */
+    public static long readAll(InputStream in, BiConsumer<ChessBoard, CharSequence> action) throws IOException {
+        ChessBoard board = new ChessBoard();
+        Parser parser = new Parser();
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        Line line = new Line();
+        int length = 0;
+        long lineNumber = 0;
+        long positions = 0;
+
+        int read;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            read = in.read(buffer);
+            endOfInput = read < 0;
+            // A final line without a newline is ended by the end of the input
+            int count = endOfInput ? 1 : read;
+            for (int i = 0; i < count; i++) {
+                byte b = endOfInput ? (byte) '\n' : buffer[i];
+                if (b != '\n') {
+                    if (length == line.chars.length) {
+                        line.chars = Arrays.copyOf(line.chars, length * 2);
+                    }
+                    line.chars[length++] = (char) (b & 0xFF);
+                    continue;
+                }
+                lineNumber++;
+                if (length > 0 && line.chars[length - 1] == '\r') length--;
+                if (length > 0 && line.chars[0] != '#' && !isBlank(line.chars, length)) {
+                    line.set(0, length);
+                    int end;
+                    try {
+                        end = parser.parse(line, board);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+                    }
+                    line.set(end, length);
+                    action.accept(board, line);
+                    positions++;
+                }
+                length = 0;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * A reusable window onto the line buffer, so no string is created per line.
+     */
+    private static final class Line implements CharSequence {
+        char[] chars = new char[128];
+        private int start;
+        private int end;
+
+        void set(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(chars, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, start, end - start);
+        }
+    }
+
+    private static boolean isBlank(char[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(line[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses into scratch arrays first and only touches the board once the whole
+     * string has been validated.
+     */
+    private static final class Parser {
+        private final byte[] squares = new byte[64]; // 0 empty, else 1 + color * 6 + type code
+
+        int parse(CharSequence fen, ChessBoard board) {
+            int length = fen.length();
+            int i = skipSpaces(fen, 0);
+
+            // Piece placement, from row 0 (rank 8) down to row 7 (rank 1)
+            Arrays.fill(squares, (byte) 0);
+            int row = 0;
+            int col = 0;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                char c = fen.charAt(i);
+                if (c == '/') {
+                    if (col != 8) throw invalid(fen, "rank " + (8 - row) + " does not have 8 squares");
+                    if (++row > 7) throw invalid(fen, "more than 8 ranks");
+                    col = 0;
+                } else if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    if (col > 8) throw invalid(fen, "rank " + (8 - row) + " has more than 8 squares");
+                } else {
+                    int type = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                    if (type < 0) throw invalid(fen, "unknown piece '" + c + "'");
+                    if (col > 7) throw invalid(fen, "rank " + (8 - row) + " has more than 8 squares");
+                    int color = Character.isUpperCase(c) ? ChessPiece.WHITE : ChessPiece.BLACK;
+                    squares[row * 8 + col++] = (byte) (1 + color * 6 + type);
+                }
+            }
+            if (row != 7 || col != 8) throw invalid(fen, "piece placement does not cover 8 ranks");
+            validatePlacement(fen);
+
+            // Side to move
+            i = skipSpaces(fen, i);
+            if (i >= length) throw invalid(fen, "missing side to move");
+            char side = fen.charAt(i++);
+            if (side != 'w' && side != 'b') throw invalid(fen, "side to move must be 'w' or 'b'");
+
+            // Castling rights
+            i = skipSpaces(fen, i);
+            if (i >= length) throw invalid(fen, "missing castling rights");
+            int castling = 0;
+            if (fen.charAt(i) == '-') {
+                i++;
+            } else {
+                for (; i < length && fen.charAt(i) != ' '; i++) {
+                    castling |= switch (fen.charAt(i)) {
+                        case 'K' -> WHITE_KING_SIDE;
+                        case 'Q' -> WHITE_QUEEN_SIDE;
+                        case 'k' -> BLACK_KING_SIDE;
+                        case 'q' -> BLACK_QUEEN_SIDE;
+                        default -> throw invalid(fen, "unknown castling right '" + fen.charAt(i) + "'");
+                    };
+                }
+            }
+
+            // En passant square
+            i = skipSpaces(fen, i);
+            if (i >= length) throw invalid(fen, "missing en passant square");
+            int enPassant = -1;
+            if (fen.charAt(i) == '-') {
+                i++;
+            } else {
+                if (i + 1 >= length) throw invalid(fen, "bad en passant square");
+                char file = fen.charAt(i);
+                char rank = fen.charAt(i + 1);
+                if (file < 'a' || file > 'h' || (rank != '3' && rank != '6')) {
+                    throw invalid(fen, "bad en passant square");
+                }
+                enPassant = ('8' - rank) * 8 + (file - 'a');
+                i += 2;
+            }
+
+            // Optional clocks
+            int halfmoveClock = 0;
+            int fullmoveNumber = 1;
+            int next = skipSpaces(fen, i);
+            if (next < length && Character.isDigit(fen.charAt(next))) {
+                int end = digitsEnd(fen, next);
+                halfmoveClock = parseNumber(fen, next, end);
+                i = end;
+                next = skipSpaces(fen, i);
+                if (next < length && Character.isDigit(fen.charAt(next))) {
+                    end = digitsEnd(fen, next);
+                    fullmoveNumber = Math.max(1, parseNumber(fen, next, end));
+                    i = end;
+                }
+            }
+
+            apply(board, castling, side == 'w' ? ChessPiece.WHITE : ChessPiece.BLACK, enPassant,
+                    halfmoveClock, fullmoveNumber);
+            return i;
+        }
+
+        // The move generator and evaluation assume one king per side and no pawn on a back rank
+        private void validatePlacement(CharSequence fen) {
+            int whiteKing = 1 + ChessPiece.WHITE * 6 + PieceType.KING.getCode();
+            int blackKing = 1 + ChessPiece.BLACK * 6 + PieceType.KING.getCode();
+            int whitePawn = 1 + ChessPiece.WHITE * 6 + PieceType.PAWN.getCode();
+            int blackPawn = 1 + ChessPiece.BLACK * 6 + PieceType.PAWN.getCode();
+            int whiteKings = 0;
+            int blackKings = 0;
+            for (int square = 0; square < 64; square++) {
+                int code = squares[square];
+                if (code == whiteKing) whiteKings++;
+                if (code == blackKing) blackKings++;
+                if ((code == whitePawn || code == blackPawn) && (square < 8 || square >= 56)) {
+                    throw invalid(fen, "pawn on the " + (square < 8 ? "eighth" : "first") + " rank");
+                }
+            }
+            if (whiteKings != 1) throw invalid(fen, "white must have exactly one king, not " + whiteKings);
+            if (blackKings != 1) throw invalid(fen, "black must have exactly one king, not " + blackKings);
+        }
+
+        private void apply(ChessBoard board, int castling, int sideToMove, int enPassant, int halfmoveClock,
+                           int fullmoveNumber) {
+            board.clearBoard();
+            for (int square = 0; square < 64; square++) {
+                if (squares[square] == 0) continue;
+                int color = (squares[square] - 1) / 6;
+                int type = (squares[square] - 1) % 6;
+                int row = square / 8;
+                int col = square % 8;
+                ChessPiece piece = createPiece(type, row, col, color);
+                piece.setHasMoved(hasMoved(type, color, row, col, castling));
+                board.addPiece(piece);
+            }
+            board.setSideToMove(sideToMove);
+            board.setEnPassantSquare(enPassant);
+            board.setHalfmoveClock(halfmoveClock);
+            board.setFullmoveNumber(fullmoveNumber);
+        }
+
+        // Kings and rooks have moved unless a castling right says otherwise; pawns have
+        // moved once they leave their starting rank, which matters for double pushes
+        private static boolean hasMoved(int type, int color, int row, int col, int castling) {
+            int homeRow = color == ChessPiece.WHITE ? 7 : 0;
+            int kingSide = color == ChessPiece.WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+            int queenSide = color == ChessPiece.WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+            if (type == PieceType.KING.getCode()) {
+                return row != homeRow || col != 4 || (castling & (kingSide | queenSide)) == 0;
+            }
+            if (type == PieceType.ROOK.getCode()) {
+                return row != homeRow || !((col == 7 && (castling & kingSide) != 0)
+                        || (col == 0 && (castling & queenSide) != 0));
+            }
+            if (type == PieceType.PAWN.getCode()) {
+                return row != (color == ChessPiece.WHITE ? 6 : 1);
+            }
+            return false;
+        }
+
+        private static int skipSpaces(CharSequence fen, int i) {
+            while (i < fen.length() && fen.charAt(i) == ' ') i++;
+            return i;
+        }
+
+        private static int digitsEnd(CharSequence fen, int i) {
+            while (i < fen.length() && Character.isDigit(fen.charAt(i))) i++;
+            return i;
+        }
+
+        private static int parseNumber(CharSequence fen, int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                value = Math.min(value * 10 + (fen.charAt(i) - '0'), 1_000_000);
+            }
+            return value;
+        }
+
+        private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+            return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+        }
+    }
+
+    private static ChessPiece createPiece(int type, int row, int col, int color) {
+        return switch (type) {
+            case 0 -> new Pawn(row, col, color);
+            case 1 -> new Rook(row, col, color);
+            case 2 -> new Knight(row, col, color);
+            case 3 -> new Bishop(row, col, color);
+            case 4 -> new Queen(row, col, color);
+            default -> new King(row, col, color);
+        };
+    }
+
+    private Fen() {
+        // Not meant for instantiation
+    }
+}
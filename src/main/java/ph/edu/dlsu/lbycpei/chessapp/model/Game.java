@@ -0,0 +1,182 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI.Move;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.PieceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A game played without the user interface, e.g. between two engines: a board and
+ * enough history to apply the draw rules. Moves are checked against
+ * {@link MoveGenerator} and written in coordinate notation ("e2e4", "e7e8q"). The
+ * board's side to move and clocks are kept up to date, so {@link ChessBoard#toFen}
+ * describes the current position.
+ */
+public class Game {
+
+    public enum Result {
+        ONGOING, WHITE_WINS, BLACK_WINS, DRAW
+    }
+
+    private static final int FIFTY_MOVE_PLIES = 100;
+
+    private final ChessBoard board;
+    private final List<Move> moves = new ArrayList<>();
+    private long[] keys = new long[128]; // position key before each move and after the last
+    private Result result = Result.ONGOING;
+    private String termination = "";
+
+    /**
+     * Creates a game from the standard starting position.
+     */
+    public Game() {
+        this(new ChessBoard());
+    }
+
+    /**
+     * Creates a game from an existing position, e.g. one loaded from FEN, with the
+     * board's side to move and halfmove clock. The game plays its moves on that board.
+     *
+     * @param board the position
+     */
+    public Game(ChessBoard board) {
+        this.board = board;
+        keys[0] = EasyChessAI.positionKey(board, board.getSideToMove());
+        updateResult();
+    }
+
+    public ChessBoard getBoard() {
+        return board;
+    }
+
+    public int getSideToMove() {
+        return board.getSideToMove();
+    }
+
+    public List<Move> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    /**
+     * Returns why the game ended, e.g. "checkmate" or "threefold repetition", or an
+     * empty string while it is still going.
+     */
+    public String getTermination() {
+        return termination;
+    }
+
+    public List<Move> getLegalMoves() {
+        return MoveGenerator.generateLegalMoves(board, board.getSideToMove());
+    }
+
+    /**
+     * Finds the legal move written in coordinate notation.
+     *
+     * @return the move, or null if no legal move matches
+     */
+    public Move findMove(String notation) {
+        for (Move move : getLegalMoves()) {
+            if (move.toString().equalsIgnoreCase(notation)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plays a move given in coordinate notation if it is legal.
+     *
+     * @return true if the move was played
+     */
+    public boolean play(String notation) {
+        if (result != Result.ONGOING) return false;
+        Move move = findMove(notation);
+        if (move == null) return false;
+        play(move);
+        return true;
+    }
+
+    /**
+     * Plays a move that is known to be legal, such as one returned by the engine.
+     */
+    public void play(Move move) {
+        boolean irreversible = move.piece.getType() == PieceType.PAWN || move.capturedPiece != null;
+        int color = board.getSideToMove();
+        EasyChessAI.makeMove(board, move);
+        moves.add(move);
+        board.setHalfmoveClock(irreversible ? 0 : board.getHalfmoveClock() + 1);
+        if (color == ChessPiece.BLACK) {
+            board.setFullmoveNumber(board.getFullmoveNumber() + 1);
+        }
+        board.setSideToMove(color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE);
+        if (moves.size() == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[moves.size()] = EasyChessAI.positionKey(board, board.getSideToMove());
+        updateResult();
+    }
+
+    /**
+     * Ends a game that is still going, for instance when it runs too long or a player
+     * resigns or disconnects.
+     */
+    public void adjudicate(Result result, String termination) {
+        if (this.result == Result.ONGOING) {
+            this.result = result;
+            this.termination = termination;
+        }
+    }
+
+    private void updateResult() {
+        int sideToMove = board.getSideToMove();
+        if (getLegalMoves().isEmpty()) {
+            if (Attacks.isInCheck(board, sideToMove)) {
+                result = sideToMove == ChessPiece.WHITE ? Result.BLACK_WINS : Result.WHITE_WINS;
+                termination = "checkmate";
+            } else {
+                result = Result.DRAW;
+                termination = "stalemate";
+            }
+        } else if (board.getHalfmoveClock() >= FIFTY_MOVE_PLIES) {
+            result = Result.DRAW;
+            termination = "fifty-move rule";
+        } else if (countRepetitions() >= 3) {
+            result = Result.DRAW;
+            termination = "threefold repetition";
+        } else if (isInsufficientMaterial()) {
+            result = Result.DRAW;
+            termination = "insufficient material";
+        }
+    }
+
+    // Only positions since the last pawn move or capture can repeat the current one
+    private int countRepetitions() {
+        int current = moves.size();
+        int count = 1;
+        for (int ply = current - 2; ply >= Math.max(0, current - board.getHalfmoveClock()); ply -= 2) {
+            if (keys[ply] == keys[current]) count++;
+        }
+        return count;
+    }
+
+    // Bare kings, or a single knight or bishop against a bare king
+    private boolean isInsufficientMaterial() {
+        int minorPieces = 0;
+        for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+            if ((board.getPieces(color, PieceType.PAWN) | board.getPieces(color, PieceType.ROOK)
+                    | board.getPieces(color, PieceType.QUEEN)) != 0) {
+                return false;
+            }
+            minorPieces += Long.bitCount(board.getPieces(color, PieceType.KNIGHT) | board.getPieces(color, PieceType.BISHOP));
+        }
+        return minorPieces <= 1;
+    }
+}
@@ -0,0 +1,227 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Lets any number of spectators follow one game. The game's thread publishes each move
+ * once into a ring buffer, and every {@link Subscriber} reads from it at its own pace
+ * through its own cursor. Publishing never waits for subscribers: it stores the update
+ * and, if anyone is blocked waiting, wakes a notifier thread that wakes them in turn.
+ * <p>
+ * Every update carries the position in FEN, so a subscriber that falls more than the
+ * buffer's capacity behind does not need the moves it missed: it gets the newest
+ * position as a snapshot and continues from there.
+ */
+public class GameBroadcaster {
+
+    public enum Kind {
+        /** A move was played; the update has the move and the position after it. */
+        MOVE,
+        /** A new game started from the update's position. */
+        NEW_GAME,
+        /** The subscriber joined or fell behind and continues from this position. */
+        SNAPSHOT
+    }
+
+    /**
+     * One published event, or a snapshot made for a subscriber.
+     *
+     * @param sequence       counts the updates published, from 0
+     * @param kind           what happened
+     * @param move           the move as the publisher wrote it, or null
+     * @param fen            the position after the update
+     * @param publishedNanos {@link System#nanoTime} when the update was published
+     */
+    public record Update(long sequence, Kind kind, String move, String fen, long publishedNanos) { }
+
+    private final AtomicReferenceArray<Update> ring;
+    private final int mask;
+    private volatile long published = -1; // only the publishing thread writes it
+
+    // Blocked subscribers wait on the condition; the notifier signals it for the publisher
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition updated = lock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Thread notifier;
+
+    /**
+     * @param capacity updates kept for subscribers that fall behind, a power of two
+     * @param fen      the starting position
+     */
+    public GameBroadcaster(int capacity, String fen) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        ring = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        notifier = new Thread(this::notifySubscribers, "broadcast-notifier");
+        notifier.setDaemon(true);
+        notifier.start();
+        publish(Kind.NEW_GAME, null, fen);
+    }
+
+    /**
+     * Publishes a move. Must only be called by one thread at a time, normally the
+     * thread that plays the game.
+     *
+     * @param move the move, in any notation the subscribers understand
+     * @param fen  the position after the move
+     */
+    public void publishMove(String move, String fen) {
+        publish(Kind.MOVE, move, fen);
+    }
+
+    /**
+     * Publishes the start of a new game, from the same thread as {@link #publishMove}.
+     */
+    public void publishNewGame(String fen) {
+        publish(Kind.NEW_GAME, null, fen);
+    }
+
+    private void publish(Kind kind, String move, String fen) {
+        long sequence = published + 1;
+        ring.set((int) sequence & mask, new Update(sequence, kind, move, fen, System.nanoTime()));
+        published = sequence;
+        // Waking thousands of subscribers is the notifier's job, not the player's
+        if (waiting.get() > 0) {
+            LockSupport.unpark(notifier);
+        }
+    }
+
+    /**
+     * Returns the newest update.
+     */
+    public Update getLatest() {
+        while (true) {
+            long sequence = published;
+            Update update = ring.get((int) sequence & mask);
+            if (update.sequence() == sequence) return update;
+            // Overwritten between the two reads; the next one is newer still
+        }
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds a subscriber. Its first update is a snapshot of the current position.
+     */
+    public Subscriber subscribe() {
+        return new Subscriber();
+    }
+
+    /**
+     * Stops the notifier thread. Subscribers can still poll, but no longer block.
+     */
+    public void close() {
+        notifier.interrupt();
+    }
+
+    private void notifySubscribers() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.park(this);
+            lock.lock();
+            try {
+                updated.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * One spectator's position in the stream. A subscriber is meant for a single
+     * reading thread.
+     */
+    public final class Subscriber {
+        private long cursor;       // next sequence to read
+        private boolean needsSnapshot = true;
+        private long resyncs;
+
+        private Subscriber() {
+        }
+
+        /**
+         * Hands the updates published since the last call to the consumer, in order.
+         * After falling behind by more than the capacity, the consumer gets a snapshot
+         * of the newest position instead of the moves it missed.
+         *
+         * @return the number of updates handed over
+         */
+        public int poll(Consumer<Update> consumer) {
+            int delivered = 0;
+            long head = published;
+            if (!needsSnapshot && head - cursor >= getCapacity()) {
+                needsSnapshot = true;
+                resyncs++;
+            }
+            while (true) {
+                if (needsSnapshot) {
+                    Update latest = getLatest();
+                    consumer.accept(new Update(latest.sequence(), Kind.SNAPSHOT, null, latest.fen(),
+                            latest.publishedNanos()));
+                    cursor = latest.sequence() + 1;
+                    needsSnapshot = false;
+                    delivered++;
+                }
+                if (cursor > head) return delivered;
+                Update update = ring.get((int) cursor & mask);
+                if (update.sequence() != cursor) {
+                    // The publisher lapped us while the consumer was busy
+                    needsSnapshot = true;
+                    resyncs++;
+                    head = published;
+                    continue;
+                }
+                consumer.accept(update);
+                cursor++;
+                delivered++;
+            }
+        }
+
+        /**
+         * Like {@link #poll}, but waits up to the timeout for an update if there is none.
+         *
+         * @return the number of updates handed over, 0 if the wait timed out
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        public int await(Consumer<Update> consumer, long timeout, TimeUnit unit) throws InterruptedException {
+            int delivered = poll(consumer);
+            if (delivered > 0) return delivered;
+            long remaining = unit.toNanos(timeout);
+            waiting.incrementAndGet();
+            lock.lock();
+            try {
+                // Checked after registering as waiting, so a publish in between is not missed
+                while (published < cursor && remaining > 0) {
+                    remaining = updated.awaitNanos(remaining);
+                }
+            } finally {
+                lock.unlock();
+                waiting.decrementAndGet();
+            }
+            return poll(consumer);
+        }
+
+        /**
+         * Returns the number of updates published that this subscriber has not read.
+         */
+        public long getLag() {
+            return Math.max(0, published + 1 - cursor);
+        }
+
+        /**
+         * Returns how many times this subscriber fell behind and was given a snapshot.
+         */
+        public long getResyncs() {
+            return resyncs;
+        }
+    }
+}
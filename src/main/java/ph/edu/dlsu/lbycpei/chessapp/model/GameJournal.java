@@ -0,0 +1,211 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Append-only record of the game in progress, so it can be resumed after the
+ * application closes or crashes. Each move is a 4-byte record with its from and to
+ * squares, its ply number modulo 256 and a check byte; replay stops at the first
+ * record that does not fit, which is where a crash cut the file short.
+ * <p>
+ * Moves are handed to a background thread, so recording one costs the caller no more
+ * than adding to a queue. The thread writes whatever has queued up in one go and then
+ * forces it to disk once, so a burst of moves shares a single sync. Starting a new game
+ * empties the file, keeping it as short as the current game.
+ */
+public class GameJournal implements Closeable {
+
+    private static final long MAGIC = 0x4348455353_4A524EL; // "CHESSJRN"
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 4;
+
+    private static final int TYPE_MOVE = 1;
+    private static final int TYPE_NEW_GAME = 2;
+    private static final int CLOSE = 0; // never a valid record, as the type is 0
+
+    /**
+     * A recorded move, by the squares it went from and to.
+     */
+    public record Entry(int fromRow, int fromCol, int toRow, int toCol) { }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Entry> restoredGame;
+    private final BlockingQueue<Integer> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private int ply;          // of the next move; only the caller's thread uses it
+    private volatile boolean failed;
+
+    private GameJournal(Path path, FileChannel channel, List<Entry> restoredGame) {
+        this.path = path;
+        this.channel = channel;
+        this.restoredGame = restoredGame;
+        this.ply = restoredGame.size();
+        writer = new Thread(this::write, "game-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens a journal, creating it if necessary, and reads back the game it holds. A
+     * partial or damaged record at the end is cut off.
+     *
+     * @throws IOException if the file cannot be opened or is not a game journal
+     */
+    public static GameJournal open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            List<Entry> game = new ArrayList<>();
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(HEADER_BYTES).putLong(0, MAGIC));
+                channel.force(false);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                if (header.getLong(0) != MAGIC) {
+                    throw new IOException("Not a game journal: " + path);
+                }
+                long valid = replay(channel, game);
+                channel.truncate(HEADER_BYTES + valid * RECORD_BYTES);
+            }
+            channel.position(channel.size());
+            return new GameJournal(path, channel, Collections.unmodifiableList(game));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Collects the moves after the last new-game record; returns the number of good records
+    private static long replay(FileChannel channel, List<Entry> game) throws IOException {
+        long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        if (records <= 0) return 0;
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, records * RECORD_BYTES);
+        for (long i = 0; i < records; i++) {
+            int record = data.getInt((int) (i * RECORD_BYTES));
+            int type = (record >>> 12) & 0xF;
+            if (record != withCheck(record & 0xFFFFFF)) return i;
+            if (type == TYPE_NEW_GAME) {
+                game.clear();
+            } else if (type == TYPE_MOVE && ((record >>> 16) & 0xFF) == (game.size() & 0xFF)) {
+                int from = record & 0x3F;
+                int to = (record >>> 6) & 0x3F;
+                game.add(new Entry(from / 8, from % 8, to / 8, to % 8));
+            } else {
+                return i;
+            }
+        }
+        return records;
+    }
+
+    // The top byte checks the other three, so zeroed or torn records are rejected
+    private static int withCheck(int record) {
+        return record | ((record * 0x9E3779B1) >>> 24 << 24);
+    }
+
+    /**
+     * Returns the moves of the game that was in progress when the journal was last
+     * closed, from the start position.
+     */
+    public List<Entry> getRestoredGame() {
+        return restoredGame;
+    }
+
+    /**
+     * Records a move of the current game. Returns at once; the move reaches the disk
+     * shortly after.
+     */
+    public void append(int fromRow, int fromCol, int toRow, int toCol) {
+        int record = (fromRow * 8 + fromCol) | (toRow * 8 + toCol) << 6 | TYPE_MOVE << 12 | (ply++ & 0xFF) << 16;
+        enqueue(withCheck(record));
+    }
+
+    /**
+     * Discards the recorded moves and starts recording a new game.
+     */
+    public void startNewGame() {
+        ply = 0;
+        enqueue(withCheck(TYPE_NEW_GAME << 12));
+    }
+
+    private void enqueue(int record) {
+        if (!failed) {
+            pending.add(record);
+        }
+    }
+
+    private void write() {
+        ByteBuffer batch = ByteBuffer.allocate(RECORD_BYTES * 256);
+        List<Integer> records = new ArrayList<>();
+        try {
+            while (true) {
+                records.add(pending.take());
+                pending.drainTo(records);
+                boolean closing = false;
+                batch.clear();
+                for (int record : records) {
+                    if (record == CLOSE) {
+                        closing = true;
+                    } else if ((record >>> 12 & 0xF) == TYPE_NEW_GAME) {
+                        // Whatever came before belongs to the old game
+                        batch.clear();
+                        channel.truncate(HEADER_BYTES);
+                        channel.position(HEADER_BYTES);
+                        batch.putInt(record);
+                    } else {
+                        if (!batch.hasRemaining()) flush(batch);
+                        batch.putInt(record);
+                    }
+                }
+                records.clear();
+                flush(batch);
+                channel.force(false);
+                if (closing) return;
+            }
+        } catch (IOException e) {
+            failed = true;
+            pending.clear();
+            System.err.println("Failed to write game journal " + path + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Writes the moves still queued, syncs them and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        pending.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
@@ -184,9 +184,11 @@ public class GameLogic {
         }
 
         // Simulate king movement through intermediate square
-        int intermediateCol = king.getCol() + (kingSide ? 1 : -1);
+        int kingCol = king.getCol();
+        boolean kingHasMoved = king.hasMoved();
+        int intermediateCol = kingCol + (kingSide ? 1 : -1);
         ChessPiece originalPiece = board.pieceAt(king.getRow(), intermediateCol);
-        board.removePiece(king.getRow(), king.getCol());
+        board.removePiece(king.getRow(), kingCol);
         king.moveTo(king.getRow(), intermediateCol);
         board.addPiece(king);
 
@@ -194,7 +196,8 @@ public class GameLogic {
 
         // Restore position
         board.removePiece(king.getRow(), intermediateCol);
-        king.moveTo(king.getRow(), king.getCol());
+        king.moveTo(king.getRow(), kingCol);
+        king.setHasMoved(kingHasMoved);
         board.addPiece(king);
         if (originalPiece != null) {
             board.addPiece(originalPiece);
@@ -221,6 +224,13 @@ public class GameLogic {
                 newCol == enPassantTarget.getCol();
     }
 
+    // En passant capture square as row * 8 + col, or -1 if there is none
+    public static int getEnPassantSquare() {
+        if (enPassantTarget == null) return -1;
+        int behind = enPassantTarget.getColor() == ChessPiece.WHITE ? 1 : -1;
+        return (enPassantTarget.getRow() + behind) * 8 + enPassantTarget.getCol();
+    }
+
     public static void updateCastlingFlags(ChessPiece piece, int oldRow, int oldCol) {
         if (piece instanceof King) {
             if (piece.getColor() == ChessPiece.WHITE) {
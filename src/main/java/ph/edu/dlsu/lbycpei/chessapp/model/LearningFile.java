@@ -0,0 +1,114 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file of positions the engine searched deeply, so that work survives a new
+ * game and a restart of the application. Each 16-byte record holds a position key and a
+ * {@link TranspositionTable} entry (best move, depth, score). Later records for the same
+ * position win when the file is loaded back into a table.
+ * <p>
+ * Keys are only meaningful because {@link Zobrist} uses a fixed seed.
+ */
+public class LearningFile implements Closeable {
+
+    private static final long MAGIC = 0x4348455353_4C524EL; // "CHESSLRN"
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private boolean failed;
+
+    private LearningFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a learning file for reading and appending, creating it if necessary.
+     *
+     * @throws IOException if the file cannot be opened or is not a learning file
+     */
+    public static LearningFile open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // READ is needed for mapping, which rules out APPEND; records are only ever
+        // written at the end, after dropping any partial record a crash left behind
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(HEADER_BYTES).putLong(0, MAGIC));
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                if (header.getLong(0) != MAGIC) {
+                    throw new IOException("Not a learning file: " + path);
+                }
+                long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+                channel.truncate(HEADER_BYTES + records * RECORD_BYTES);
+                channel.position(channel.size());
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new LearningFile(path, channel);
+    }
+
+    /**
+     * Loads every complete record into a transposition table through a memory-mapped
+     * view of the file. A record cut short by a crash at the end is ignored.
+     *
+     * @return the number of records loaded
+     */
+    public synchronized int loadInto(TranspositionTable table) throws IOException {
+        long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        if (records <= 0) return 0;
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, records * RECORD_BYTES);
+        for (int i = 0; i < records; i++) {
+            long key = data.getLong(i * RECORD_BYTES);
+            long entry = data.getLong(i * RECORD_BYTES + 8);
+            table.store(key, TranspositionTable.getMoveKey(entry), TranspositionTable.getDepth(entry),
+                    TranspositionTable.getBound(entry), TranspositionTable.getScore(entry));
+        }
+        return (int) records;
+    }
+
+    /**
+     * Appends the result of a search. Write errors are reported once and further
+     * records are dropped, so a full disk never interrupts a game.
+     */
+    public synchronized void record(long key, int moveKey, int depth, int score) {
+        if (failed) return;
+        long entry = (moveKey & 0xFFFL)
+                | ((long) Math.min(depth, 255) << 12)
+                | ((long) TranspositionTable.BOUND_EXACT << 20)
+                | ((long) score << 32);
+        record.clear();
+        record.putLong(key).putLong(entry).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Failed to write learning file " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
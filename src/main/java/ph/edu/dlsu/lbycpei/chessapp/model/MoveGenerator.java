@@ -0,0 +1,210 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI.Move;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.PieceType;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.Rook;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates moves for the engine straight from the board's bitboards. Moves are
+ * pseudo-legal: they follow the piece rules but may leave the mover's own king in
+ * check, which the search finds out by playing the move and calling
+ * {@link Attacks#isInCheck}. Captures and quiet moves are generated separately so a
+ * node that cuts off early never pays for the quiet moves.
+ */
+public final class MoveGenerator {
+
+    private static final PieceType[] PIECE_TYPES = {
+            PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+
+    /**
+     * Adds captures, en passant captures and promotions (capturing or not) for the
+     * given color.
+     *
+     * @param board the position
+     * @param color the side to move
+     * @param moves the list the moves are appended to
+     */
+    public static void generateCaptures(ChessBoard board, int color, List<Move> moves) {
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        // Kings are never captured; a position where one could be is already illegal
+        long targets = board.getOccupancy(opponent) & ~board.getPieces(opponent, PieceType.KING);
+        int enPassant = board.getEnPassantSquare();
+        int promotionRow = color == ChessPiece.WHITE ? 0 : 7;
+        int forward = color == ChessPiece.WHITE ? -8 : 8;
+
+        long pawns = board.getPieces(color, PieceType.PAWN);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long attacks = Attacks.pawnAttacks(color, from);
+            addMoves(board, from, attacks & targets, moves);
+            if (enPassant >= 0 && (attacks & (1L << enPassant)) != 0) {
+                moves.add(createMove(board, from, enPassant));
+            }
+            int push = from + forward;
+            if (push / 8 == promotionRow && (occupied & (1L << push)) == 0) {
+                moves.add(createMove(board, from, push));
+            }
+        }
+
+        for (PieceType type : PIECE_TYPES) {
+            long pieces = board.getPieces(color, type);
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                addMoves(board, from, Attacks.attacksFrom(type, color, from, occupied) & targets, moves);
+            }
+        }
+    }
+
+    /**
+     * Adds non-capturing moves that are not promotions, including castling, for the
+     * given color.
+     *
+     * @param board the position
+     * @param color the side to move
+     * @param moves the list the moves are appended to
+     */
+    public static void generateQuiets(ChessBoard board, int color, List<Move> moves) {
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        long empty = ~occupied;
+        int promotionRow = color == ChessPiece.WHITE ? 0 : 7;
+        int startRow = color == ChessPiece.WHITE ? 6 : 1;
+        int forward = color == ChessPiece.WHITE ? -8 : 8;
+
+        long pawns = board.getPieces(color, PieceType.PAWN);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            int push = from + forward;
+            if ((empty & (1L << push)) == 0 || push / 8 == promotionRow) continue;
+            moves.add(createMove(board, from, push));
+            if (from / 8 == startRow && (empty & (1L << (push + forward))) != 0) {
+                moves.add(createMove(board, from, push + forward));
+            }
+        }
+
+        for (PieceType type : PIECE_TYPES) {
+            long pieces = board.getPieces(color, type);
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                addMoves(board, from, Attacks.attacksFrom(type, color, from, occupied) & empty, moves);
+            }
+        }
+
+        int kingSquare = board.getKingSquare(color);
+        if (kingSquare >= 0) {
+            if (canCastle(board, color, kingSquare, true)) {
+                moves.add(createMove(board, kingSquare, kingSquare + 2));
+            }
+            if (canCastle(board, color, kingSquare, false)) {
+                moves.add(createMove(board, kingSquare, kingSquare - 2));
+            }
+        }
+    }
+
+    /**
+     * Returns every legal move for the given color, captures first.
+     */
+    public static List<Move> generateLegalMoves(ChessBoard board, int color) {
+        List<Move> moves = new ArrayList<>();
+        generateCaptures(board, color, moves);
+        generateQuiets(board, color, moves);
+        moves.removeIf(move -> !isLegal(board, move));
+        return moves;
+    }
+
+    /**
+     * Checks that a pseudo-legal move does not leave the mover's king in check.
+     */
+    public static boolean isLegal(ChessBoard board, Move move) {
+        EasyChessAI.makeMove(board, move);
+        boolean legal = !Attacks.isInCheck(board, move.piece.getColor());
+        EasyChessAI.unmakeMove(board, move);
+        return legal;
+    }
+
+    /**
+     * Rebuilds a move from its key (from square * 64 + to square) if it is pseudo-legal
+     * in the current position. Used for moves remembered from other positions, such as
+     * hash moves and killers, which may not be playable here.
+     *
+     * @param board the position
+     * @param color the side to move
+     * @param key   the move key
+     * @return the move, or null if the piece on the from square cannot make it
+     */
+    public static Move fromKey(ChessBoard board, int color, int key) {
+        if (key < 0) return null;
+        int from = key >>> 6;
+        int to = key & 63;
+        ChessPiece piece = board.pieceAt(from / 8, from % 8);
+        if (piece == null || piece.getColor() != color) return null;
+        ChessPiece target = board.pieceAt(to / 8, to % 8);
+        if (target != null && (target.getColor() == color || target.getType() == PieceType.KING)) return null;
+
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        long toBit = 1L << to;
+        boolean reachable = switch (piece.getType()) {
+            case PAWN -> {
+                int forward = color == ChessPiece.WHITE ? -8 : 8;
+                if ((Attacks.pawnAttacks(color, from) & toBit) != 0) {
+                    yield target != null || to == board.getEnPassantSquare();
+                }
+                int startRow = color == ChessPiece.WHITE ? 6 : 1;
+                yield target == null && (to == from + forward
+                        || (to == from + 2 * forward && from / 8 == startRow && (occupied & (1L << (from + forward))) == 0));
+            }
+            case KING -> Math.abs(to - from) == 2 && from / 8 == to / 8
+                    ? canCastle(board, color, from, to > from)
+                    : (Attacks.kingAttacks(from) & toBit) != 0;
+            default -> (Attacks.attacksFrom(piece.getType(), color, from, occupied) & toBit) != 0;
+        };
+        return reachable ? new Move(piece, from / 8, from % 8, to / 8, to % 8, target) : null;
+    }
+
+    private static void addMoves(ChessBoard board, int from, long targets, List<Move> moves) {
+        while (targets != 0) {
+            moves.add(createMove(board, from, Long.numberOfTrailingZeros(targets)));
+            targets &= targets - 1;
+        }
+    }
+
+    private static Move createMove(ChessBoard board, int from, int to) {
+        return new Move(board.pieceAt(from / 8, from % 8), from / 8, from % 8, to / 8, to % 8,
+                board.pieceAt(to / 8, to % 8));
+    }
+
+    // Castling by the pieces' moved flags, so the search never touches the game's castling state
+    private static boolean canCastle(ChessBoard board, int color, int kingSquare, boolean kingSide) {
+        int row = kingSquare / 8;
+        ChessPiece king = board.pieceAt(row, kingSquare % 8);
+        ChessPiece rook = board.pieceAt(row, kingSide ? 7 : 0);
+        if (kingSquare % 8 != 4 || king.hasMoved() || row != (color == ChessPiece.WHITE ? 7 : 0)
+                || !(rook instanceof Rook) || rook.getColor() != color || rook.hasMoved()) {
+            return false;
+        }
+
+        long occupied = board.getOccupancy(ChessPiece.WHITE) | board.getOccupancy(ChessPiece.BLACK);
+        long between = kingSide ? 0x60L : 0x0EL;
+        if ((occupied & (between << (row * 8))) != 0) return false;
+
+        // The king may not castle out of, through, or into check
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        int step = kingSide ? 1 : -1;
+        return !Attacks.isSquareAttacked(board, kingSquare, opponent)
+                && !Attacks.isSquareAttacked(board, kingSquare + step, opponent)
+                && !Attacks.isSquareAttacked(board, kingSquare + 2 * step, opponent);
+    }
+
+    private MoveGenerator() {
+        // Not meant for instantiation
+    }
+}
@@ -0,0 +1,110 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI.Move;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.PieceType;
+
+import java.util.List;
+
+/**
+ * Converts moves to and from standard algebraic notation (SAN), e.g. "Nf3", "exd5",
+ * "O-O" or "e8=Q+", as used by EPD and PGN files.
+ */
+public final class MoveNotation {
+
+    private static final String PIECE_LETTERS = "PRNBQK"; // indexed by PieceType code
+
+    /**
+     * Writes a legal move in SAN, with a "+" or "#" suffix for check or mate.
+     *
+     * @param board the position before the move
+     * @param move  the move
+     * @return the move in SAN
+     */
+    public static String toSan(ChessBoard board, Move move) {
+        int color = move.piece.getColor();
+        StringBuilder san = new StringBuilder(withoutSuffix(move, MoveGenerator.generateLegalMoves(board, color)));
+
+        EasyChessAI.makeMove(board, move);
+        int opponent = color == ChessPiece.WHITE ? ChessPiece.BLACK : ChessPiece.WHITE;
+        if (Attacks.isInCheck(board, opponent)) {
+            san.append(MoveGenerator.generateLegalMoves(board, opponent).isEmpty() ? '#' : '+');
+        }
+        EasyChessAI.unmakeMove(board, move);
+        return san.toString();
+    }
+
+    /**
+     * Finds the legal move a SAN string stands for. Check, mate and annotation marks
+     * ("+", "#", "!", "?") are ignored, and coordinate notation ("e2e4") is accepted too.
+     *
+     * @param board the position
+     * @param color the side to move
+     * @param text  the move
+     * @return the move, or null if no legal move matches
+     */
+    public static Move parse(ChessBoard board, int color, String text) {
+        String wanted = stripSuffix(text).replace("0-0", "O-O");
+        List<Move> legalMoves = MoveGenerator.generateLegalMoves(board, color);
+        for (Move move : legalMoves) {
+            if (wanted.equals(withoutSuffix(move, legalMoves)) || wanted.equalsIgnoreCase(move.toString())) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private static String stripSuffix(String text) {
+        int end = text.length();
+        while (end > 0 && "+#!?".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    private static String withoutSuffix(Move move, List<Move> legalMoves) {
+        if (move.isCastling) {
+            return move.toCol > move.fromCol ? "O-O" : "O-O-O";
+        }
+        PieceType type = move.piece.getType();
+        boolean capture = move.capturedPiece != null || move.isEnPassant;
+        StringBuilder san = new StringBuilder();
+
+        if (type == PieceType.PAWN) {
+            if (capture) san.append(file(move.fromCol));
+        } else {
+            san.append(PIECE_LETTERS.charAt(type.getCode()));
+            // Name the file, the rank or both when another piece of the same kind can go there too
+            boolean ambiguous = false;
+            boolean sameFile = false;
+            boolean sameRank = false;
+            for (Move other : legalMoves) {
+                if (other.piece != move.piece && other.piece.getType() == type
+                        && other.toRow == move.toRow && other.toCol == move.toCol) {
+                    ambiguous = true;
+                    sameFile |= other.fromCol == move.fromCol;
+                    sameRank |= other.fromRow == move.fromRow;
+                }
+            }
+            if (ambiguous && (!sameFile || sameRank)) san.append(file(move.fromCol));
+            if (ambiguous && sameFile) san.append(rank(move.fromRow));
+        }
+
+        if (capture) san.append('x');
+        san.append(file(move.toCol)).append(rank(move.toRow));
+        if (move.isPromotion) san.append("=Q");
+        return san.toString();
+    }
+
+    private static char file(int col) {
+        return (char) ('a' + col);
+    }
+
+    private static char rank(int row) {
+        return (char) ('8' - row);
+    }
+
+    private MoveNotation() {
+        // Not meant for instantiation
+    }
+}
@@ -0,0 +1,137 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out the moves of one search node in stages, generating each stage only when
+ * the previous one is used up: the hash move, captures that do not lose material,
+ * killer moves, the remaining quiet moves, and finally losing captures. Most cutoffs
+ * happen in the first stages, so those nodes never generate or score quiet moves.
+ * <p>
+ * Moves are pseudo-legal; the caller plays each one and skips it if it leaves the
+ * king in check.
+ */
+final class MovePicker {
+
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int DONE = 7;
+
+    private final EasyChessAI engine;
+    private final ChessBoard board;
+    private final int color;
+    private final int hashMove;
+    private final int ply;
+    private final Move previousMove;
+
+    private int stage = HASH_MOVE;
+    private final List<Move> moves = new ArrayList<>();
+    private final List<Move> badCaptures = new ArrayList<>();
+    private int index;
+    private int killerIndex;
+    private final int[] playedKillers = {-1, -1};
+
+    MovePicker(EasyChessAI engine, ChessBoard board, int color, int hashMove, int ply, Move previousMove) {
+        this.engine = engine;
+        this.board = board;
+        this.color = color;
+        this.hashMove = hashMove;
+        this.ply = ply;
+        this.previousMove = previousMove;
+    }
+
+    /**
+     * Returns the next move to search, or null when every stage is exhausted.
+     */
+    Move next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE -> {
+                    stage = GENERATE_CAPTURES;
+                    Move move = MoveGenerator.fromKey(board, color, hashMove);
+                    if (move != null) return move;
+                }
+                case GENERATE_CAPTURES -> {
+                    MoveGenerator.generateCaptures(board, color, moves);
+                    engine.scoreCaptures(board, moves);
+                    stage = GOOD_CAPTURES;
+                }
+                case GOOD_CAPTURES -> {
+                    Move move = pickBest();
+                    if (move == null) {
+                        stage = KILLERS;
+                    } else if (EasyChessAI.moveKey(move) != hashMove) {
+                        // Captures that lose the exchange wait until after the quiet moves
+                        if (move.getExchangeScore() < 0 && !move.isPromotion) {
+                            badCaptures.add(move);
+                        } else {
+                            return move;
+                        }
+                    }
+                }
+                case KILLERS -> {
+                    if (killerIndex == playedKillers.length) {
+                        stage = GENERATE_QUIETS;
+                        break;
+                    }
+                    int key = engine.getKiller(ply, killerIndex++);
+                    if (key == hashMove) break;
+                    Move move = MoveGenerator.fromKey(board, color, key);
+                    if (move != null && move.capturedPiece == null && !move.isEnPassant && !move.isPromotion) {
+                        playedKillers[killerIndex - 1] = key;
+                        return move;
+                    }
+                }
+                case GENERATE_QUIETS -> {
+                    moves.clear();
+                    index = 0;
+                    MoveGenerator.generateQuiets(board, color, moves);
+                    engine.scoreQuiets(moves, previousMove);
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    Move move = pickBest();
+                    if (move == null) {
+                        stage = BAD_CAPTURES;
+                        index = 0;
+                        break;
+                    }
+                    int key = EasyChessAI.moveKey(move);
+                    if (key != hashMove && key != playedKillers[0] && key != playedKillers[1]) {
+                        return move;
+                    }
+                }
+                case BAD_CAPTURES -> {
+                    if (index < badCaptures.size()) return badCaptures.get(index++);
+                    stage = DONE;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+    }
+
+    // Selection sort step: only as much of the list is ordered as the search consumes
+    private Move pickBest() {
+        if (index >= moves.size()) return null;
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (moves.get(i).getOrderScore() > moves.get(best).getOrderScore()) {
+                best = i;
+            }
+        }
+        Move move = moves.get(best);
+        moves.set(best, moves.get(index));
+        moves.set(index++, move);
+        return move;
+    }
+}
@@ -0,0 +1,69 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.PieceType;
+
+/**
+ * The first-layer outputs of an {@link NnueNetwork} for one board, from both sides'
+ * perspectives. Attached to a board with {@link ChessBoard#setAccumulator}, it is
+ * updated by the board whenever a piece is added or removed, so making or unmaking a
+ * move costs a few vector additions instead of a full recomputation.
+ */
+public class NnueAccumulator {
+
+    private final NnueNetwork network;
+    final short[][] values;
+    final float[] input; // scratch space for evaluation
+
+    public NnueAccumulator(NnueNetwork network) {
+        this.network = network;
+        values = new short[2][network.getHiddenSize()];
+        input = new float[2 * network.getHiddenSize()];
+    }
+
+    public NnueNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Recomputes both perspectives from scratch for the pieces on a board.
+     */
+    public void refresh(ChessBoard board) {
+        for (int perspective = ChessPiece.WHITE; perspective <= ChessPiece.BLACK; perspective++) {
+            network.resetAccumulator(values[perspective]);
+        }
+        for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+            for (PieceType type : PieceType.values()) {
+                long pieces = board.getPieces(color, type);
+                while (pieces != 0) {
+                    add(color, type.getCode(), Long.numberOfTrailingZeros(pieces));
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+    }
+
+    void add(int color, int typeCode, int square) {
+        update(color, typeCode, square, 1);
+    }
+
+    void remove(int color, int typeCode, int square) {
+        update(color, typeCode, square, -1);
+    }
+
+    private void update(int color, int typeCode, int square, int sign) {
+        for (int perspective = ChessPiece.WHITE; perspective <= ChessPiece.BLACK; perspective++) {
+            network.updateAccumulator(values[perspective], NnueNetwork.featureIndex(perspective, color, typeCode, square), sign);
+        }
+    }
+
+    /**
+     * Evaluates the board the accumulator is attached to.
+     *
+     * @param color the side to move
+     * @return the evaluation in centipawns for the side to move
+     */
+    public int evaluate(int color) {
+        return network.evaluate(this, color);
+    }
+}
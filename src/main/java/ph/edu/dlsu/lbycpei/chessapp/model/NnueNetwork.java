@@ -0,0 +1,205 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A small efficiently updatable neural network (NNUE) for evaluation, as an alternative
+ * to the hand-crafted evaluation in {@link EasyChessAI}.
+ * <p>
+ * The input layer has one feature per color, piece type and square (768 in all), seen
+ * from each side's perspective. Its output, the accumulator, only changes by one weight
+ * row when a piece is added or removed, so {@link NnueAccumulator} keeps it up to date
+ * as the search makes and unmakes moves. The rest of the network is two small dense
+ * layers, computed when a position is evaluated:
+ * <pre>
+ *   768 -&gt; hidden (x2 perspectives) -&gt; clipped ReLU -&gt; layer -&gt; clipped ReLU -&gt; 1
+ * </pre>
+ * Weights are read from a little-endian binary file: the int magic "NNUE", the hidden
+ * and layer sizes as ints, then the feature weights (short, 768 x hidden), feature
+ * biases (short, hidden), layer weights (float, layer x 2 * hidden), layer biases
+ * (float, layer), output weights (float, layer) and the output bias (float). Feature
+ * weights are quantized so that {@link #ACTIVATION_LIMIT} stands for 1.0; the output
+ * is in centipawns for the side to move.
+ * <p>
+ * The weight rows are added up with the Vector API when the incubating
+ * jdk.incubator.vector module is present (run with
+ * {@code --add-modules jdk.incubator.vector}), and with plain loops otherwise.
+ */
+public class NnueNetwork {
+
+    public static final int INPUTS = 2 * 6 * 64;
+    static final int ACTIVATION_LIMIT = 255;
+
+    private static final int MAGIC = 0x45554E4E; // "NNUE" read little-endian
+    private static final Kernels KERNELS = loadKernels();
+
+    /**
+     * The loops over weight rows, with and without the Vector API.
+     */
+    interface Kernels {
+        /** Adds (sign 1) or subtracts (sign -1) a row of weights from the accumulator. */
+        void addRow(short[] accumulator, short[] weights, int offset, int length, int sign);
+
+        /** Returns the dot product of a row of weights and the input. */
+        float dot(float[] weights, int offset, float[] input, int length);
+    }
+
+    private static final class ScalarKernels implements Kernels {
+        @Override
+        public void addRow(short[] accumulator, short[] weights, int offset, int length, int sign) {
+            for (int i = 0; i < length; i++) {
+                accumulator[i] += (short) (sign * weights[offset + i]);
+            }
+        }
+
+        @Override
+        public float dot(float[] weights, int offset, float[] input, int length) {
+            float result = 0f;
+            for (int i = 0; i < length; i++) {
+                result += weights[offset + i] * input[i];
+            }
+            return result;
+        }
+    }
+
+    // The module is optional, so the class that uses it is only loaded by name once it is known to be there
+    private static Kernels loadKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernels) Class.forName(NnueNetwork.class.getPackageName() + ".NnueVectorKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar network code: " + e);
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    /**
+     * Returns whether evaluation uses the Vector API.
+     */
+    public static boolean isVectorized() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    private final int hiddenSize;
+    private final int layerSize;
+    private final short[] featureWeights;  // [feature][hidden]
+    private final short[] featureBias;
+    private final float[] layerWeights;    // [layer][2 * hidden], side to move's half first
+    private final float[] layerBias;
+    private final float[] outputWeights;
+    private final float outputBias;
+
+    public NnueNetwork(int hiddenSize, int layerSize, short[] featureWeights, short[] featureBias,
+                       float[] layerWeights, float[] layerBias, float[] outputWeights, float outputBias) {
+        if (featureWeights.length != INPUTS * hiddenSize || featureBias.length != hiddenSize
+                || layerWeights.length != layerSize * 2 * hiddenSize || layerBias.length != layerSize
+                || outputWeights.length != layerSize) {
+            throw new IllegalArgumentException("Weight arrays do not match sizes " + hiddenSize + " and " + layerSize);
+        }
+        this.hiddenSize = hiddenSize;
+        this.layerSize = layerSize;
+        this.featureWeights = featureWeights;
+        this.featureBias = featureBias;
+        this.layerWeights = layerWeights;
+        this.layerBias = layerBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads a network from a weights file in the format described above.
+     *
+     * @throws IOException if the file cannot be read or is not a network file
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.remaining() < 12 || data.getInt() != MAGIC) {
+                throw new IOException("Not a network file: " + path);
+            }
+            int hidden = data.getInt();
+            int layer = data.getInt();
+            long expected = 12L + 2L * (INPUTS + 1) * hidden + 4L * (layer * 2L * hidden + 2L * layer + 1);
+            if (hidden <= 0 || layer <= 0 || channel.size() != expected) {
+                throw new IOException("Network file " + path + " has the wrong size for " + hidden + " x " + layer);
+            }
+            short[] featureWeights = new short[INPUTS * hidden];
+            short[] featureBias = new short[hidden];
+            float[] layerWeights = new float[layer * 2 * hidden];
+            float[] layerBias = new float[layer];
+            float[] outputWeights = new float[layer];
+            data.asShortBuffer().get(featureWeights).get(featureBias);
+            data.position(data.position() + 2 * (featureWeights.length + featureBias.length));
+            data.asFloatBuffer().get(layerWeights).get(layerBias).get(outputWeights);
+            data.position(data.position() + 4 * (layerWeights.length + layerBias.length + outputWeights.length));
+            return new NnueNetwork(hidden, layer, featureWeights, featureBias, layerWeights, layerBias,
+                    outputWeights, data.getFloat());
+        }
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    public int getLayerSize() {
+        return layerSize;
+    }
+
+    // Perspectives are mirrored: black sees its own pieces as "own" and the board flipped
+    static int featureIndex(int perspective, int color, int typeCode, int square) {
+        if (perspective == ChessPiece.BLACK) {
+            color ^= 1;
+            square ^= 56;
+        }
+        return (color * 6 + typeCode) * 64 + square;
+    }
+
+    void resetAccumulator(short[] accumulator) {
+        System.arraycopy(featureBias, 0, accumulator, 0, hiddenSize);
+    }
+
+    /**
+     * Adds (sign 1) or subtracts (sign -1) one feature's weight row from an accumulator.
+     */
+    void updateAccumulator(short[] accumulator, int feature, int sign) {
+        KERNELS.addRow(accumulator, featureWeights, feature * hiddenSize, hiddenSize, sign);
+    }
+
+    /**
+     * Runs the dense layers on an up-to-date accumulator.
+     *
+     * @param accumulator the accumulator of the position
+     * @param color       the side to move
+     * @return the evaluation in centipawns for the side to move
+     */
+    int evaluate(NnueAccumulator accumulator, int color) {
+        float[] input = accumulator.input;
+        short[] own = accumulator.values[color];
+        short[] other = accumulator.values[color ^ 1];
+        for (int i = 0; i < hiddenSize; i++) {
+            input[i] = clippedRelu(own[i]);
+            input[hiddenSize + i] = clippedRelu(other[i]);
+        }
+
+        int width = 2 * hiddenSize;
+        float output = outputBias;
+        for (int neuron = 0; neuron < layerSize; neuron++) {
+            float activation = layerBias[neuron] + KERNELS.dot(layerWeights, neuron * width, input, width);
+            output += outputWeights[neuron] * Math.min(Math.max(activation, 0f), 1f);
+        }
+        return Math.round(output);
+    }
+
+    private static float clippedRelu(short value) {
+        return Math.min(Math.max(value, 0), ACTIVATION_LIMIT) / (float) ACTIVATION_LIMIT;
+    }
+}
@@ -0,0 +1,45 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link NnueNetwork} kernels on the Vector API. Kept apart from the network, and only
+ * loaded by name when the jdk.incubator.vector module is present, so the application
+ * still runs without it.
+ */
+final class NnueVectorKernels implements NnueNetwork.Kernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void addRow(short[] accumulator, short[] weights, int offset, int length, int sign) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+            ShortVector values = ShortVector.fromArray(SHORTS, accumulator, i);
+            ShortVector row = ShortVector.fromArray(SHORTS, weights, offset + i);
+            (sign > 0 ? values.add(row) : values.sub(row)).intoArray(accumulator, i);
+        }
+        for (; i < length; i++) {
+            accumulator[i] += (short) (sign * weights[offset + i]);
+        }
+    }
+
+    @Override
+    public float dot(float[] weights, int offset, float[] input, int length) {
+        FloatVector sum = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (int bound = FLOATS.loopBound(length); i < bound; i += FLOATS.length()) {
+            FloatVector row = FloatVector.fromArray(FLOATS, weights, offset + i);
+            sum = row.fma(FloatVector.fromArray(FLOATS, input, i), sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += weights[offset + i] * input[i];
+        }
+        return result;
+    }
+}
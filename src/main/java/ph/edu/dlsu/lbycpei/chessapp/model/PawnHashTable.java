@@ -0,0 +1,90 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of pawn structure evaluations keyed by the board's pawn-only
+ * Zobrist key. Pawn structure rarely changes from one search node to the next, so
+ * almost every probe is a hit.
+ * <p>
+ * Each slot stores the key XORed with its data, and a probe only returns data that
+ * decodes back to the key it asked for, so a position sharing the slot reads as a miss.
+ * The probe and hit counters are plain fields, so a table is meant for one engine
+ * searching on one thread; every {@link EasyChessAI} has its own.
+ */
+public class PawnHashTable {
+
+    /** Returned by {@link #probe} when the key is not in the table. */
+    public static final long MISS = -1L;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * Creates a table with the given number of slots, rounded up to a power of two.
+     *
+     * @param entries the minimum number of slots
+     */
+    public PawnHashTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries - 1)) << 1;
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+        Arrays.fill(data, MISS);
+    }
+
+    /**
+     * Looks up a pawn key.
+     *
+     * @param key the pawn-only Zobrist key
+     * @return the stored data (never negative), or {@link #MISS}
+     */
+    public long probe(long key) {
+        probes++;
+        int index = (int) key & mask;
+        long stored = data[index];
+        if ((keys[index] ^ stored) == key && stored != MISS) {
+            hits++;
+            return stored;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores data for a pawn key, replacing whatever occupied the slot.
+     *
+     * @param key   the pawn-only Zobrist key
+     * @param value non-negative data to cache
+     */
+    public void store(long key, long value) {
+        int index = (int) key & mask;
+        keys[index] = key ^ value;
+        data[index] = value;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, MISS);
+        probes = 0;
+        hits = 0;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the fraction of probes that found their key, between 0 and 1.
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+}
@@ -0,0 +1,109 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI.Move;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of a search, taken when an iteration of iterative deepening
+ * completes. Safe to hand to other threads.
+ */
+public class SearchInfo {
+
+    private final int line;
+    private final int depth;
+    private final int score;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final long iterationMillis;
+    private final double hashHitRate;
+    private final double firstMoveCutoffRate;
+    private final List<Move> principalVariation;
+
+    public SearchInfo(int line, int depth, int score, long nodes, long elapsedMillis, long iterationMillis,
+                      double hashHitRate, double firstMoveCutoffRate, List<Move> principalVariation) {
+        this.line = line;
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.iterationMillis = iterationMillis;
+        this.hashHitRate = hashHitRate;
+        this.firstMoveCutoffRate = firstMoveCutoffRate;
+        this.principalVariation = List.copyOf(principalVariation);
+    }
+
+    /**
+     * Returns which line this is when several are searched (multi-PV), 1 being the
+     * best move; always 1 for an ordinary search.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Returns the score in centipawns from the point of view of the side searched. */
+    public int getScore() {
+        return score;
+    }
+
+    /** Returns the nodes searched since the search started, over all iterations. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** Returns the time spent on this iteration alone. */
+    public long getIterationMillis() {
+        return iterationMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+
+    public double getHashHitRate() {
+        return hashHitRate;
+    }
+
+    public double getFirstMoveCutoffRate() {
+        return firstMoveCutoffRate;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * Formats the snapshot as a UCI-style info line, e.g.
+     * {@code info depth 5 multipv 1 score cp 13 nodes 48210 nps 160700 time 300 pv b8c6 d2d4}.
+     * A forced mate is given in moves instead, as {@code score mate 3}, negative when
+     * the side searched is the one getting mated.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("info depth ").append(depth)
+                .append(" multipv ").append(line);
+        int mateDistance = EasyChessAI.getMateDistance(score);
+        if (mateDistance != 0) {
+            // Plies to moves, counting the mating side's moves only
+            text.append(" score mate ").append(Integer.signum(mateDistance) * ((Math.abs(mateDistance) + 1) / 2));
+        } else {
+            text.append(" score cp ").append(score);
+        }
+        text.append(" nodes ").append(nodes)
+                .append(" nps ").append(getNodesPerSecond())
+                .append(" time ").append(elapsedMillis)
+                .append(" pv");
+        for (Move move : principalVariation) {
+            text.append(' ').append(move);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event committed by the engine for each completed iteration of
+ * iterative deepening. Disabled events cost a single branch, so it is always wired in;
+ * record it with {@code -XX:StartFlightRecording}.
+ */
+@Name("ph.edu.dlsu.lbycpei.chessapp.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Engine"})
+@Description("One completed iteration of the engine's iterative deepening search")
+class SearchIterationEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Score")
+    @Description("Score in centipawns for the side to move")
+    int score;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Beta Cutoffs")
+    long betaCutoffs;
+
+    @Label("First Move Cutoff Rate")
+    double firstMoveCutoffRate;
+
+    @Label("Hash Hit Rate")
+    double hashHitRate;
+
+    @Label("Best Move")
+    String bestMove;
+}
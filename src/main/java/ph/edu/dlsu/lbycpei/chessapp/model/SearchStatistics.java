@@ -0,0 +1,96 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+/**
+ * Counters for a single search, reset when the search starts. They are plain fields
+ * updated by the searching thread only; other threads should read the
+ * {@link SearchInfo} snapshots the engine publishes after each iteration instead.
+ */
+public class SearchStatistics {
+
+    private long nodes;
+    private long quiescenceNodes;
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long hashProbes;
+    private long hashHits;
+    private long hashCutoffs;
+
+    void reset() {
+        nodes = 0;
+        quiescenceNodes = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        hashProbes = 0;
+        hashHits = 0;
+        hashCutoffs = 0;
+    }
+
+    void countNode() {
+        nodes++;
+    }
+
+    void countQuiescenceNode() {
+        nodes++;
+        quiescenceNodes++;
+    }
+
+    void countCutoff(boolean firstMove) {
+        betaCutoffs++;
+        if (firstMove) {
+            firstMoveCutoffs++;
+        }
+    }
+
+    void countHashProbe(boolean hit) {
+        hashProbes++;
+        if (hit) {
+            hashHits++;
+        }
+    }
+
+    void countHashCutoff() {
+        hashCutoffs++;
+    }
+
+    /** Returns every node visited, including quiescence nodes. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Returns the share of beta cutoffs that happened on the first move searched,
+     * between 0 and 1. Good move ordering keeps this above 0.9.
+     */
+    public double getFirstMoveCutoffRate() {
+        return betaCutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / betaCutoffs;
+    }
+
+    public long getHashProbes() {
+        return hashProbes;
+    }
+
+    public long getHashHits() {
+        return hashHits;
+    }
+
+    /** Returns how many nodes were settled by a transposition table entry alone. */
+    public long getHashCutoffs() {
+        return hashCutoffs;
+    }
+
+    public double getHashHitRate() {
+        return hashProbes == 0 ? 0.0 : (double) hashHits / hashProbes;
+    }
+}
@@ -0,0 +1,178 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.stream.IntStream;
+
+/**
+ * Hash table of search results keyed by position. Each entry remembers the best move
+ * found in a position, the depth it was searched to, and the score with its bound type,
+ * so the search can reuse work when the same position is reached again.
+ * <p>
+ * Entries are packed into a single long: bits 0-11 move key, 12-19 depth, 20-21 bound,
+ * 32-63 score. Like {@link PawnHashTable}, a slot stores the key XORed with its data.
+ * <p>
+ * The slots live off the Java heap, so a large table adds nothing to garbage collection
+ * work, and one table can be shared by engines searching on several threads without
+ * locks: each long is read and written atomically, and a slot torn by two threads
+ * writing at once fails the XOR check and simply reads as a miss.
+ * <p>
+ * A direct buffer holds at most 2 GB, so tables over 1 GB are split over several
+ * buffers of 1 GB each, up to {@link #MAX_ENTRIES} slots (64 GB) in all.
+ */
+public class TranspositionTable {
+
+    /** Returned by {@link #probe} when the key is not in the table. */
+    public static final long MISS = 0L;
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;  // score is at least this (fail high)
+    public static final int BOUND_UPPER = 3;  // score is at most this (fail low)
+
+    /** The most slots a table can have. */
+    public static final long MAX_ENTRIES = 1L << 32;
+
+    private static final int SLOT_BYTES = 16;           // key ^ data, then data
+    private static final int SEGMENT_BITS = 26;         // slots per buffer, as a power of two: 1 GB
+    private static final int CLEAR_CHUNK_BYTES = 1 << 20;
+    private static final byte[] ZEROS = new byte[CLEAR_CHUNK_BYTES];
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // Swapped as a whole by resize, so a search never sees a buffer with the wrong mask
+    private static class Slots {
+        final ByteBuffer[] segments;
+        final long mask;
+
+        Slots(long entries) {
+            int perSegment = (int) Math.min(entries, 1L << SEGMENT_BITS);
+            segments = new ByteBuffer[(int) (entries / perSegment)];
+            for (int i = 0; i < segments.length; i++) {
+                // Opaque access needs 8-byte aligned longs
+                segments[i] = ByteBuffer.allocateDirect(perSegment * SLOT_BYTES + 8).alignedSlice(8);
+            }
+            mask = entries - 1;
+        }
+
+        ByteBuffer segment(long index) {
+            return segments[(int) (index >>> SEGMENT_BITS)];
+        }
+
+        static int offset(long index) {
+            return ((int) index & ((1 << SEGMENT_BITS) - 1)) * SLOT_BYTES;
+        }
+    }
+
+    private volatile Slots slots;
+
+    /**
+     * Creates a table with the given number of slots, rounded up to a power of two.
+     *
+     * @param entries the minimum number of slots, at most {@link #MAX_ENTRIES}
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public TranspositionTable(long entries) {
+        slots = new Slots(roundUp(entries));
+    }
+
+    private static long roundUp(long entries) {
+        if (entries < 1 || entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Table size must be between 1 and " + MAX_ENTRIES + ": " + entries);
+        }
+        return entries == 1 ? 1 : Long.highestOneBit(entries - 1) << 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position's Zobrist key
+     * @return the packed entry, or {@link #MISS}
+     */
+    public long probe(long key) {
+        Slots current = slots;
+        long index = key & current.mask;
+        ByteBuffer memory = current.segment(index);
+        int offset = Slots.offset(index);
+        long check = (long) LONGS.getOpaque(memory, offset);
+        long entry = (long) LONGS.getOpaque(memory, offset + 8);
+        return entry != MISS && (check ^ entry) == key ? entry : MISS;
+    }
+
+    /**
+     * Stores a search result, replacing the slot unless it holds a deeper result for
+     * the same position.
+     *
+     * @param key     the position's Zobrist key
+     * @param moveKey the best move as from square * 64 + to square, or -1 for none
+     * @param depth   the remaining depth the score was searched to
+     * @param bound   one of the BOUND_ constants
+     * @param score   the score, already adjusted for mate distance by the caller
+     */
+    public void store(long key, int moveKey, int depth, int bound, int score) {
+        Slots current = slots;
+        long index = key & current.mask;
+        ByteBuffer memory = current.segment(index);
+        int offset = Slots.offset(index);
+        long existing = (long) LONGS.getOpaque(memory, offset + 8);
+        if (existing != MISS && ((long) LONGS.getOpaque(memory, offset) ^ existing) == key
+                && getDepth(existing) > depth && bound != BOUND_EXACT) {
+            return;
+        }
+        long entry = (moveKey & 0xFFFL)
+                | ((long) Math.max(0, Math.min(depth, 255)) << 12)
+                | ((long) bound << 20)
+                | ((long) score << 32);
+        LONGS.setOpaque(memory, offset, key ^ entry);
+        LONGS.setOpaque(memory, offset + 8, entry);
+    }
+
+    /**
+     * Empties the table, zeroing the memory in parallel chunks.
+     */
+    public void clear() {
+        for (ByteBuffer memory : slots.segments) {
+            int chunks = (memory.capacity() + CLEAR_CHUNK_BYTES - 1) / CLEAR_CHUNK_BYTES;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int start = chunk * CLEAR_CHUNK_BYTES;
+                int length = Math.min(CLEAR_CHUNK_BYTES, memory.capacity() - start);
+                memory.put(start, ZEROS, 0, length);
+            });
+        }
+    }
+
+    /**
+     * Replaces the table with an empty one of a new size. Searches running on other
+     * threads carry on safely; they switch to the new table on their next probe.
+     *
+     * @param entries the minimum number of slots, at most {@link #MAX_ENTRIES}
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public void resize(long entries) {
+        slots = new Slots(roundUp(entries));
+    }
+
+    public long size() {
+        return slots.mask + 1;
+    }
+
+    public long getMemoryBytes() {
+        return size() * SLOT_BYTES;
+    }
+
+    public static int getMoveKey(long entry) {
+        return (int) (entry & 0xFFF);
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 12) & 0xFF;
+    }
+
+    public static int getBound(long entry) {
+        return (int) (entry >>> 20) & 0x3;
+    }
+
+    public static int getScore(long entry) {
+        return (int) (entry >> 32);
+    }
+}
@@ -0,0 +1,62 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the keys of
+ * every piece on its square, so the board can update it incrementally: placing or
+ * removing a piece XORs the same key in or out.
+ */
+public final class Zobrist {
+
+    // Fixed seed so keys (and anything stored by key) are stable between runs
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[][][] PIECE_KEYS = new long[2][6][64];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long[][] CASTLING_KEYS = new long[2][2];
+    private static final long SIDE_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+            for (int type = 0; type < 6; type++) {
+                for (int square = 0; square < 64; square++) {
+                    PIECE_KEYS[color][type][square] = random.nextLong();
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_KEYS[file] = random.nextLong();
+        }
+        SIDE_TO_MOVE_KEY = random.nextLong();
+        for (int color = ChessPiece.WHITE; color <= ChessPiece.BLACK; color++) {
+            CASTLING_KEYS[color][0] = random.nextLong();
+            CASTLING_KEYS[color][1] = random.nextLong();
+        }
+    }
+
+    public static long pieceKey(int color, int typeCode, int square) {
+        return PIECE_KEYS[color][typeCode][square];
+    }
+
+    public static long enPassantKey(int file) {
+        return EN_PASSANT_KEYS[file];
+    }
+
+    // XORed in for each castling right still held
+    public static long castlingKey(int color, boolean kingSide) {
+        return CASTLING_KEYS[color][kingSide ? 0 : 1];
+    }
+
+    // XORed in when black is to move
+    public static long sideToMoveKey() {
+        return SIDE_TO_MOVE_KEY;
+    }
+
+    private Zobrist() {
+        // Not meant for instantiation
+    }
+}
@@ -36,6 +36,7 @@ public abstract class ChessPiece implements ChessPieceInterface {
         ChessPiece capturedPiece = board.pieceAt(finalRow, finalCol);
         int originalRow = this.row;
         int originalCol = this.col;
+        boolean originalHasMoved = this.hasMoved;
 
         // Make temporary move
         board.removePiece(this.row, this.col);
@@ -47,6 +48,7 @@ public abstract class ChessPiece implements ChessPieceInterface {
         // Undo the move
         board.removePiece(finalRow, finalCol);
         this.moveTo(originalRow, originalCol);
+        this.hasMoved = originalHasMoved;
         board.addPiece(this);
         if (capturedPiece != null) {
             board.addPiece(capturedPiece);
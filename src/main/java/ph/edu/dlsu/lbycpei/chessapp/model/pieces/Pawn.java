@@ -26,12 +26,6 @@ import java.util.List;
  */
 public class Pawn extends ChessPiece {
 
-    /**
-     * Tracks whether this pawn has moved from its starting position.
-     * Used to determine if the pawn can make its initial two-square move.
-     */
-    private boolean hasMoved = false;
-
     /**
      * Constructs a new Pawn at the specified position with the given color.
      * The pawn starts with hasMoved set to false, allowing for the initial
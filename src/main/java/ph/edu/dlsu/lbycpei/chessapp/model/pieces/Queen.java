@@ -1,6 +1,7 @@
 package ph.edu.dlsu.lbycpei.chessapp.model.pieces;
 
 import ph.edu.dlsu.lbycpei.chessapp.model.ChessBoard;
+import ph.edu.dlsu.lbycpei.chessapp.utils.Trace;
 
 /**
  * Represents a Queen chess piece, the most powerful piece on the board.
@@ -68,14 +69,14 @@ public class Queen extends ChessPiece {
         int currentRow = this.row + rowStep;
         int currentCol = this.col + colStep;
 
-        System.out.println("Queen trying to move from (" + this.row + ", " + this.col + ") to (" + row + ", " + col + ")");
-
         // Check if the path is clear (excluding the destination)
         while (currentRow != row || currentCol != col) {
-            System.out.println("Checking square (" + currentRow + ", " + currentCol + ")");
             ChessPiece pieceOnPath = board.pieceAt(currentRow, currentCol);
-            if (board.pieceAt(currentRow, currentCol) != null) {
-                System.out.println("Blocked by " + board.pieceAt(currentRow, currentCol).getType() + " at (" + currentRow + ", " + currentCol + ")");
+            if (pieceOnPath != null) {
+                if (Trace.ENABLED) {
+                    Trace.record("Queen (" + this.row + ", " + this.col + ") to (" + row + ", " + col + ") blocked by "
+                            + pieceOnPath.getType() + " at (" + currentRow + ", " + currentCol + ")");
+                }
                 return false;
             }
 
@@ -86,12 +87,14 @@ public class Queen extends ChessPiece {
         // Check the destination square
         ChessPiece targetPiece = board.pieceAt(row, col);
         if (targetPiece != null && targetPiece.getColor() == this.color) {
-            System.out.println("Target square occupied by same color at (" + row + ", " + col + ")");
             return false;
         }
 
         boolean safe = !moveWouldCauseCheck(row, col, board);
-        System.out.println("Queen move to (" + row + ", " + col + ") is " + (safe ? "valid" : "invalid") + ".");
+        if (Trace.ENABLED) {
+            Trace.record("Queen (" + this.row + ", " + this.col + ") to (" + row + ", " + col + ") is "
+                    + (safe ? "valid" : "invalid"));
+        }
         return safe;
     }
 
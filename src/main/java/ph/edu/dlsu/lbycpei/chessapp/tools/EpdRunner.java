@@ -0,0 +1,257 @@
+package ph.edu.dlsu.lbycpei.chessapp.tools;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.ChessBoard;
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.MoveNotation;
+import ph.edu.dlsu.lbycpei.chessapp.model.SearchInfo;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs a test suite of EPD positions, each with a best move ("bm") or a move to avoid
+ * ("am"), and reports per position whether the engine solved it and how much time and
+ * how many nodes it needed, as CSV. A position counts as solved when the final move is
+ * right; the time and nodes to solution are those of the first completed iteration
+ * from which on the engine's choice stayed right. A position whose best moves are not
+ * moves the engine can play, or whose search fails, is reported unsolved with the reason
+ * in the error column.
+ * <p>
+ * Positions are searched in parallel, one engine per worker, each with its hash table
+ * cleared before every position so results do not depend on scheduling.
+ * <p>
+ * Usage: {@code EpdRunner <suite.epd> [key=value ...]}, with keys {@code time}
+ * (milliseconds per position, default 1000), {@code nodes} (node budget per position),
+ * {@code depth} (default 64), {@code hash} (entries per engine), {@code concurrency}
+ * (default: all cores) and {@code out} (CSV file, default standard output).
+ */
+public final class EpdRunner {
+
+    private static final String CSV_HEADER =
+            "id,bm,am,found,solved,depth,time_to_solution_ms,nodes_to_solution,time_ms,nodes,error";
+
+    /**
+     * One test position with its expected and forbidden moves, in SAN as written in the file.
+     */
+    record Position(String id, String fen, List<String> bestMoves, List<String> avoidMoves) { }
+
+    /**
+     * The outcome of searching one position. The solution fields are -1 when unsolved,
+     * and the error is empty unless the position could not be searched.
+     */
+    record Result(Position position, String found, boolean solved, int depth, long timeToSolution,
+                  long nodesToSolution, long time, long nodes, String error) {
+
+        static Result failed(Position position, String error) {
+            return new Result(position, "", false, 0, -1, -1, 0, 0, error);
+        }
+
+        String toCsv() {
+            return String.join(",", csvField(position.id()), String.join(" ", position.bestMoves()),
+                    String.join(" ", position.avoidMoves()), found, String.valueOf(solved), String.valueOf(depth),
+                    solved ? String.valueOf(timeToSolution) : "", solved ? String.valueOf(nodesToSolution) : "",
+                    String.valueOf(time), String.valueOf(nodes), csvField(error));
+        }
+
+        private static String csvField(String text) {
+            return text.contains(",") || text.contains("\"") ? '"' + text.replace("\"", "\"\"") + '"' : text;
+        }
+    }
+
+    private final List<Position> positions;
+    private final int depth;
+    private final long timeMillis;
+    private final long nodeLimit;
+    private final long hashEntries;
+    private final Result[] results;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private EpdRunner(List<Position> positions, Map<String, String> options) {
+        this.positions = positions;
+        this.depth = Integer.parseInt(options.getOrDefault("depth", "64"));
+        this.timeMillis = Long.parseLong(options.getOrDefault("time", "1000"));
+        this.nodeLimit = Long.parseLong(options.getOrDefault("nodes", String.valueOf(Long.MAX_VALUE)));
+        this.hashEntries = Long.parseLong(options.getOrDefault("hash", String.valueOf(1 << 20)));
+        this.results = new Result[positions.size()];
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: EpdRunner <suite.epd> [time=ms] [nodes=n] [depth=n] [concurrency=n] [out=file]");
+            System.exit(2);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int separator = args[i].indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value: " + args[i]);
+                System.exit(2);
+            }
+            options.put(args[i].substring(0, separator), args[i].substring(separator + 1));
+        }
+
+        List<Position> positions = new ArrayList<>();
+        List<String> lines = Files.readAllLines(Path.of(args[0]));
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                positions.add(parse(line, i + 1));
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        EpdRunner runner = new EpdRunner(positions, options);
+        long start = System.currentTimeMillis();
+        runner.run(concurrency);
+
+        PrintStream out = options.containsKey("out") ? new PrintStream(options.get("out")) : System.out;
+        out.println(CSV_HEADER);
+        int solved = 0;
+        for (Result result : runner.results) {
+            out.println(result.toCsv());
+            if (result.solved()) solved++;
+        }
+        if (out != System.out) out.close();
+        System.err.printf("Solved %d of %d (%.1f%%) in %.1fs%n", solved, positions.size(),
+                positions.isEmpty() ? 0 : 100.0 * solved / positions.size(),
+                (System.currentTimeMillis() - start) / 1000.0);
+    }
+
+    // EPD: the first four FEN fields, then operations separated by semicolons
+    static Position parse(String line, int lineNumber) {
+        String[] fields = line.split("\\s+", 5);
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": not an EPD position");
+        }
+        String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3]);
+        // Load it once here so a bad position is rejected with its line number, not mid-run
+        try {
+            new ChessBoard().loadFen(fen);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        String id = "line " + lineNumber;
+        List<String> bestMoves = new ArrayList<>();
+        List<String> avoidMoves = new ArrayList<>();
+        for (String operation : (fields.length > 4 ? fields[4] : "").split(";")) {
+            String[] parts = operation.strip().split("\\s+");
+            switch (parts[0]) {
+                case "bm" -> bestMoves.addAll(List.of(parts).subList(1, parts.length));
+                case "am" -> avoidMoves.addAll(List.of(parts).subList(1, parts.length));
+                case "id" -> id = operation.strip().substring(2).strip().replace("\"", "");
+                default -> { }
+            }
+        }
+        if (bestMoves.isEmpty() && avoidMoves.isEmpty()) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": no bm or am operation");
+        }
+        return new Position(id, fen, bestMoves, avoidMoves);
+    }
+
+    private void run(int concurrency) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(this::solvePositions);
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    private void solvePositions() {
+        EasyChessAI engine = newEngine();
+        int index;
+        while ((index = next.getAndIncrement()) < positions.size()) {
+            Position position = positions.get(index);
+            engine.getTranspositionTable().clear();
+            try {
+                results[index] = solve(engine, position);
+            } catch (RuntimeException e) {
+                System.err.println(position.id() + ": search failed: " + e);
+                results[index] = Result.failed(position, e.toString());
+                // The failed search may have left the engine's tables half updated
+                engine = newEngine();
+            }
+        }
+    }
+
+    private EasyChessAI newEngine() {
+        EasyChessAI engine = new EasyChessAI(hashEntries);
+        engine.setNodeLimit(nodeLimit);
+        return engine;
+    }
+
+    private Result solve(EasyChessAI engine, Position position) {
+        ChessBoard board = new ChessBoard();
+        board.loadFen(position.fen());
+        int color = board.getSideToMove();
+
+        // Iterations report moves in coordinate notation, so translate the SAN moves once
+        List<String> best = toCoordinates(board, color, position, position.bestMoves());
+        List<String> avoid = toCoordinates(board, color, position, position.avoidMoves());
+        // An empty list means "anything but the am moves", so a bm that did not resolve
+        // (e.g. an underpromotion, which the engine never plays) must not count as solved
+        if (best.isEmpty() && !position.bestMoves().isEmpty()) {
+            return Result.failed(position, "no bm move is playable by the engine");
+        }
+
+        // Remember where the engine last switched to a right move
+        long[] solution = {-1, -1};
+        Consumer<SearchInfo> listener = info -> {
+            String move = info.getPrincipalVariation().isEmpty() ? "" : info.getPrincipalVariation().get(0).toString();
+            if (isRight(move, best, avoid)) {
+                if (solution[0] < 0) {
+                    solution[0] = info.getElapsedMillis();
+                    solution[1] = info.getNodes();
+                }
+            } else {
+                solution[0] = -1;
+                solution[1] = -1;
+            }
+        };
+
+        engine.addInfoListener(listener);
+        long start = System.currentTimeMillis();
+        EasyChessAI.Move move = engine.findBestMove(board, color, depth, timeMillis);
+        long time = System.currentTimeMillis() - start;
+        engine.removeInfoListener(listener);
+
+        String found = move == null ? "" : MoveNotation.toSan(board, move);
+        boolean solved = move != null && isRight(move.toString(), best, avoid);
+        long nodes = engine.getStatistics().getNodes();
+        return new Result(position, found, solved, engine.getCompletedDepth(),
+                solved ? (solution[0] >= 0 ? solution[0] : time) : -1,
+                solved ? (solution[1] >= 0 ? solution[1] : nodes) : -1, time, nodes, "");
+    }
+
+    private static List<String> toCoordinates(ChessBoard board, int color, Position position, List<String> sanMoves) {
+        List<String> moves = new ArrayList<>();
+        for (String san : sanMoves) {
+            EasyChessAI.Move move = MoveNotation.parse(board, color, san);
+            if (move == null) {
+                System.err.println(position.id() + ": " + san + " is not a move the engine can play");
+            } else {
+                moves.add(move.toString());
+            }
+        }
+        return moves;
+    }
+
+    private static boolean isRight(String move, List<String> best, List<String> avoid) {
+        return (best.isEmpty() || best.contains(move)) && !avoid.contains(move);
+    }
+}
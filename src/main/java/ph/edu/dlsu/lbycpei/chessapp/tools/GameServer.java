@@ -0,0 +1,355 @@
+package ph.edu.dlsu.lbycpei.chessapp.tools;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.ChessBoard;
+import ph.edu.dlsu.lbycpei.chessapp.model.Game;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+import ph.edu.dlsu.lbycpei.chessapp.utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at once for clients on the local machine. One thread runs a
+ * non-blocking selector that accepts connections, reads commands and writes replies;
+ * every game is a session on its own virtual thread that receives the commands for
+ * that game in order and checks each move with {@link Game}. A connection may play
+ * any number of games.
+ * <p>
+ * The protocol is one ASCII line per command and per reply, with moves in coordinate
+ * notation:
+ * <pre>
+ * NEW [fen]          GAME id
+ * MOVE id e2e4       OK id e2e4 | ILLEGAL id e2e4, then END id 1-0 checkmate if it ended
+ * FEN id             FEN id fen
+ * RESIGN id          END id 0-1 resignation
+ * STATS              STATS games=n moves=n n=.. p50=..us ...
+ * QUIT               (the server closes the connection once queued replies are sent)
+ * </pre>
+ * Unknown commands and games get {@code ERROR message}. Games of a connection that
+ * closes are dropped. The latency of a move is measured from reading its line to
+ * queueing the reply, so it includes waiting for the session's thread.
+ * <p>
+ * Usage: {@code GameServer [key=value ...]}, with keys {@code port} (default 7878),
+ * {@code host} (default 127.0.0.1) and {@code report} (seconds between latency
+ * reports, default 10, 0 for none).
+ */
+public final class GameServer {
+
+    private static final int MAX_LINE = 256;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextGameId = new AtomicLong(1);
+    private final AtomicLong gamesStarted = new AtomicLong();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    private GameServer(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        InetSocketAddress address = new InetSocketAddress(options.getOrDefault("host", "127.0.0.1"),
+                Integer.parseInt(options.getOrDefault("port", "7878")));
+        long reportSeconds = Long.parseLong(options.getOrDefault("report", "10"));
+
+        GameServer server = new GameServer(address);
+        System.out.println("Listening on " + server.serverChannel.getLocalAddress());
+        if (reportSeconds > 0) {
+            Thread.ofVirtual().name("game-server-report").start(() -> server.report(reportSeconds));
+        }
+        server.run();
+    }
+
+    private void report(long seconds) {
+        try {
+            while (true) {
+                Thread.sleep(seconds * 1000);
+                System.out.println(stats());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String stats() {
+        return "STATS games=" + sessions.size() + " started=" + gamesStarted.get() + " moves="
+                + moveLatency.getCount() + " " + moveLatency.summary();
+    }
+
+    private void run() throws IOException {
+        while (serverChannel.isOpen()) {
+            selector.select();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) connection.read();
+                        if (key.isValid() && key.isWritable()) connection.flush();
+                    }
+                } catch (IOException e) {
+                    if (key.attachment() instanceof Connection connection) connection.close();
+                }
+            }
+            // Sessions queue replies from their own threads; only this thread writes
+            Connection connection;
+            while ((connection = pendingWrites.poll()) != null) {
+                connection.writeScheduled.set(false);
+                try {
+                    connection.flush();
+                } catch (IOException e) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    // Runs on the selector thread, so anything slow belongs in a session
+    private void dispatch(Connection connection, String line, long receivedNanos) {
+        String command = line.strip();
+        String[] parts = command.split("\\s+", 3);
+        switch (parts[0].toUpperCase()) {
+            case "NEW" -> startGame(connection, parts.length > 1 ? command.substring(3).strip() : null);
+            case "MOVE", "FEN", "RESIGN" -> {
+                Session session = parts.length > 1 ? findSession(connection, parts[1]) : null;
+                if (session == null) {
+                    connection.send("ERROR unknown game");
+                } else {
+                    session.mailbox.add(new Command(parts[0].toUpperCase(), parts.length > 2 ? parts[2] : "",
+                            receivedNanos));
+                }
+            }
+            case "STATS" -> connection.send(stats());
+            case "QUIT" -> connection.closeAfterFlush();
+            case "" -> { }
+            default -> connection.send("ERROR unknown command " + parts[0]);
+        }
+    }
+
+    private Session findSession(Connection connection, String id) {
+        try {
+            Session session = sessions.get(Long.parseLong(id));
+            return session != null && session.connection == connection ? session : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void startGame(Connection connection, String fen) {
+        Game game;
+        if (fen == null) {
+            game = new Game();
+        } else {
+            ChessBoard board = new ChessBoard();
+            try {
+                board.loadFen(fen);
+            } catch (IllegalArgumentException e) {
+                connection.send("ERROR " + e.getMessage());
+                return;
+            }
+            game = new Game(board);
+        }
+        Session session = new Session(nextGameId.getAndIncrement(), connection, game);
+        sessions.put(session.id, session);
+        connection.sessions.put(session.id, session);
+        gamesStarted.incrementAndGet();
+        connection.send("GAME " + session.id);
+        Thread.ofVirtual().name("game-" + session.id).start(session::run);
+    }
+
+    private record Command(String name, String argument, long receivedNanos) { }
+
+    /**
+     * One game and the virtual thread that plays the moves sent for it.
+     */
+    private final class Session {
+        private static final Command CLOSE = new Command("CLOSE", "", 0);
+
+        final long id;
+        final Connection connection;
+        final Game game;
+        final BlockingQueue<Command> mailbox = new LinkedBlockingQueue<>();
+
+        Session(long id, Connection connection, Game game) {
+            this.id = id;
+            this.connection = connection;
+            this.game = game;
+        }
+
+        void run() {
+            try {
+                // A position loaded from FEN may already be over
+                while (game.getResult() == Game.Result.ONGOING) {
+                    Command command = mailbox.take();
+                    if (command == CLOSE) return;
+                    handle(command);
+                }
+                connection.send("END " + id + " " + resultText(game.getResult()) + " " + game.getTermination());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                sessions.remove(id);
+                connection.sessions.remove(id);
+            }
+        }
+
+        private void handle(Command command) {
+            switch (command.name()) {
+                case "MOVE" -> {
+                    boolean legal = game.play(command.argument());
+                    connection.send((legal ? "OK " : "ILLEGAL ") + id + " " + command.argument());
+                    moveLatency.record(System.nanoTime() - command.receivedNanos());
+                }
+                case "FEN" -> connection.send("FEN " + id + " " + game.getBoard().toFen());
+                case "RESIGN" -> game.adjudicate(game.getSideToMove() == ChessPiece.WHITE ? Game.Result.BLACK_WINS
+                        : Game.Result.WHITE_WINS, "resignation");
+                default -> { }
+            }
+        }
+
+        void close() {
+            mailbox.add(CLOSE);
+        }
+    }
+
+    private static String resultText(Game.Result result) {
+        return switch (result) {
+            case WHITE_WINS -> "1-0";
+            case BLACK_WINS -> "0-1";
+            case DRAW -> "1/2-1/2";
+            case ONGOING -> "*";
+        };
+    }
+
+    /**
+     * A client socket: its partly read line and the replies waiting to be written.
+     * Only the selector thread reads and writes the channel.
+     */
+    private final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer input = ByteBuffer.allocate(MAX_LINE);
+        final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean writeScheduled = new AtomicBoolean();
+        final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+        SelectionKey key;
+        volatile boolean closing;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            long receivedNanos = System.nanoTime();
+            int read;
+            while ((read = channel.read(input)) > 0) {
+                input.flip();
+                int start = 0;
+                for (int i = 0; i < input.limit(); i++) {
+                    if (input.get(i) == '\n') {
+                        dispatch(this, new String(input.array(), start, i - start, StandardCharsets.US_ASCII), receivedNanos);
+                        start = i + 1;
+                    }
+                }
+                input.position(start);
+                input.compact();
+                if (!input.hasRemaining()) {
+                    send("ERROR line too long");
+                    closeAfterFlush();
+                    return;
+                }
+            }
+            if (read < 0) close();
+        }
+
+        // Called from any thread
+        void send(String line) {
+            output.add(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII)));
+            if (writeScheduled.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void flush() throws IOException {
+            if (!channel.isOpen()) return;
+            ByteBuffer buffer;
+            while ((buffer = output.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    // The socket is full; carry on when the selector says it drained
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                output.poll();
+            }
+            if (closing) {
+                close();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void closeAfterFlush() {
+            closing = true;
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            for (Session session : sessions.values()) {
+                session.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ph.edu.dlsu.lbycpei.chessapp.tools;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.Game;
+import ph.edu.dlsu.lbycpei.chessapp.utils.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puts load on a {@link GameServer}: many connections, each keeping several games
+ * going at once and playing random legal moves in turn, one move in flight per
+ * connection. Every connection mirrors its games locally, so a reply that disagrees
+ * with the rules (an accepted move rejected, a game ending early or not at all)
+ * counts as an error. Prints the round-trip latency percentiles and the server's own
+ * statistics at the end.
+ * <p>
+ * Usage: {@code LoadGenerator [key=value ...]}, with keys {@code host} (default
+ * 127.0.0.1), {@code port} (default 7878), {@code connections} (default 100),
+ * {@code games} (simultaneous games per connection, default 10), {@code rounds} (how
+ * many times each connection starts its games, default 1), {@code maxPlies} (default
+ * 200, after which a game is resigned) and {@code seed}.
+ */
+public final class LoadGenerator {
+
+    private final String host;
+    private final int port;
+    private final int gamesPerConnection;
+    private final int rounds;
+    private final int maxPlies;
+    private final long seed;
+
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+    private final AtomicLong gamesFinished = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private LoadGenerator(Map<String, String> options) {
+        this.host = options.getOrDefault("host", "127.0.0.1");
+        this.port = Integer.parseInt(options.getOrDefault("port", "7878"));
+        this.gamesPerConnection = Integer.parseInt(options.getOrDefault("games", "10"));
+        this.rounds = Integer.parseInt(options.getOrDefault("rounds", "1"));
+        this.maxPlies = Integer.parseInt(options.getOrDefault("maxPlies", "200"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        int connections = Integer.parseInt(options.getOrDefault("connections", "100"));
+        LoadGenerator generator = new LoadGenerator(options);
+
+        long start = System.nanoTime();
+        // Clients mostly wait for replies, so a virtual thread per connection is cheap
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                int client = i;
+                clients.execute(() -> generator.runClient(client));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Games %d, moves %d, errors %d in %.1fs (%.0f moves/s)%n", generator.gamesFinished.get(),
+                generator.roundTrips.getCount(), generator.errors.get(), seconds,
+                generator.roundTrips.getCount() / seconds);
+        System.out.println("Round trip: " + generator.roundTrips.summary());
+        try (Socket socket = new Socket(generator.host, generator.port)) {
+            socket.getOutputStream().write("STATS\n".getBytes(StandardCharsets.US_ASCII));
+            System.out.println("Server: " + new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII)).readLine());
+        }
+    }
+
+    private void runClient(int client) {
+        SplittableRandom random = new SplittableRandom(seed + client);
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            for (int round = 0; round < rounds; round++) {
+                playRound(in, out, random);
+            }
+            send(out, "QUIT");
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Client " + client + ": " + e.getMessage());
+        }
+    }
+
+    private void playRound(BufferedReader in, OutputStream out, SplittableRandom random) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < gamesPerConnection; i++) {
+            send(out, "NEW");
+            String reply = in.readLine();
+            if (reply == null || !reply.startsWith("GAME ")) throw new IOException("Unexpected reply " + reply);
+            ids.add(Long.parseLong(reply.substring(5)));
+            games.add(new Game());
+        }
+
+        // Take turns between the games until all of them are over
+        while (!games.isEmpty()) {
+            for (int i = games.size() - 1; i >= 0; i--) {
+                Game game = games.get(i);
+                long id = ids.get(i);
+                if (game.getMoves().size() >= maxPlies) {
+                    send(out, "RESIGN " + id);
+                    expectEnd(in, id);
+                } else {
+                    List<EasyChessAI.Move> moves = game.getLegalMoves();
+                    String move = moves.get(random.nextInt(moves.size())).toString();
+                    long sent = System.nanoTime();
+                    send(out, "MOVE " + id + " " + move);
+                    String reply = in.readLine();
+                    roundTrips.record(System.nanoTime() - sent);
+                    game.play(move);
+                    if (!("OK " + id + " " + move).equals(reply)) {
+                        errors.incrementAndGet();
+                        System.err.println("Game " + id + ": " + move + " got " + reply);
+                    }
+                    if (game.getResult() == Game.Result.ONGOING) continue;
+                    expectEnd(in, id);
+                }
+                gamesFinished.incrementAndGet();
+                games.remove(i);
+                ids.remove(i);
+            }
+        }
+    }
+
+    private void expectEnd(BufferedReader in, long id) throws IOException {
+        String reply = in.readLine();
+        if (reply == null || !reply.startsWith("END " + id + " ")) {
+            errors.incrementAndGet();
+            System.err.println("Game " + id + ": expected the end, got " + reply);
+        }
+    }
+
+    private static void send(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
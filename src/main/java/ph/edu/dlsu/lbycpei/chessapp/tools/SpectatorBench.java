@@ -0,0 +1,126 @@
+package ph.edu.dlsu.lbycpei.chessapp.tools;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.Game;
+import ph.edu.dlsu.lbycpei.chessapp.model.GameBroadcaster;
+import ph.edu.dlsu.lbycpei.chessapp.utils.LatencyHistogram;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures what spectators cost the player: one thread plays random games and
+ * publishes every move to a {@link GameBroadcaster} while many subscribers, each on a
+ * virtual thread, follow along. Some subscribers can be made slow so that they fall
+ * behind and are resynchronised. Reports how long publishing a move took, how long
+ * updates took to reach subscribers, and whether any subscriber saw a gap that was not
+ * covered by a snapshot.
+ * <p>
+ * Usage: {@code SpectatorBench [key=value ...]}, with keys {@code subscribers}
+ * (default 1000), {@code moves} (default 20000), {@code interval} (microseconds between
+ * moves, default 200), {@code capacity} (default 1024), {@code slow} (how many
+ * subscribers pause after every update, default 10) and {@code pause} (their pause in
+ * microseconds, default 2000).
+ */
+public final class SpectatorBench {
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        int subscribers = Integer.parseInt(options.getOrDefault("subscribers", "1000"));
+        int moves = Integer.parseInt(options.getOrDefault("moves", "20000"));
+        long intervalNanos = Long.parseLong(options.getOrDefault("interval", "200")) * 1000;
+        int capacity = Integer.parseInt(options.getOrDefault("capacity", "1024"));
+        int slow = Integer.parseInt(options.getOrDefault("slow", "10"));
+        long pauseNanos = Long.parseLong(options.getOrDefault("pause", "2000")) * 1000;
+
+        Game game = new Game();
+        GameBroadcaster broadcaster = new GameBroadcaster(capacity, game.getBoard().toFen());
+        LatencyHistogram publishTimes = new LatencyHistogram();
+        LatencyHistogram deliveryTimes = new LatencyHistogram();
+        AtomicLong delivered = new AtomicLong();
+        AtomicLong resyncs = new AtomicLong();
+        AtomicLong gaps = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+
+        ExecutorService spectators = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < subscribers; i++) {
+            boolean isSlow = i < slow;
+            spectators.execute(() -> {
+                GameBroadcaster.Subscriber subscriber = broadcaster.subscribe();
+                long[] previous = {-1};
+                try {
+                    while (!done.get() || subscriber.getLag() > 0) {
+                        subscriber.await(update -> {
+                            // Moves must follow each other without gaps, unless a snapshot restarts the count
+                            if (update.kind() != GameBroadcaster.Kind.SNAPSHOT && update.sequence() != previous[0] + 1) {
+                                gaps.incrementAndGet();
+                            }
+                            previous[0] = update.sequence();
+                            deliveryTimes.record(System.nanoTime() - update.publishedNanos());
+                            delivered.incrementAndGet();
+                            if (isSlow) LockSupport.parkNanos(pauseNanos);
+                        }, 100, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                resyncs.addAndGet(subscriber.getResyncs());
+            });
+        }
+
+        SplittableRandom random = new SplittableRandom(1);
+        long start = System.nanoTime();
+        long next = start;
+        for (int i = 0; i < moves; i++) {
+            if (game.getResult() != Game.Result.ONGOING || game.getMoves().size() >= 200) {
+                game = new Game();
+                long before = System.nanoTime();
+                broadcaster.publishNewGame(game.getBoard().toFen());
+                publishTimes.record(System.nanoTime() - before);
+                continue;
+            }
+            List<EasyChessAI.Move> legalMoves = game.getLegalMoves();
+            EasyChessAI.Move move = legalMoves.get(random.nextInt(legalMoves.size()));
+            game.play(move);
+            String fen = game.getBoard().toFen();
+            long before = System.nanoTime();
+            broadcaster.publishMove(move.toString(), fen);
+            publishTimes.record(System.nanoTime() - before);
+
+            next += intervalNanos;
+            while (System.nanoTime() < next) {
+                Thread.onSpinWait();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        done.set(true);
+        spectators.shutdown();
+        spectators.awaitTermination(1, TimeUnit.MINUTES);
+        broadcaster.close();
+
+        System.out.printf("%d moves to %d subscribers in %.1fs, %d updates delivered, %d resyncs, %d gaps%n",
+                moves, subscribers, seconds, delivered.get(), resyncs.get(), gaps.get());
+        System.out.println("Publish:  " + publishTimes.summary());
+        System.out.println("Delivery: " + deliveryTimes.summary());
+    }
+
+    private SpectatorBench() {
+        // Not meant for instantiation
+    }
+}
@@ -0,0 +1,311 @@
+package ph.edu.dlsu.lbycpei.chessapp.tools;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.ChessBoard;
+import ph.edu.dlsu.lbycpei.chessapp.model.EvaluationParameters;
+import ph.edu.dlsu.lbycpei.chessapp.model.Fen;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Tunes the hand-crafted evaluation on a file of quiet positions labeled with the
+ * result of the game they came from (Texel's method): it looks for the parameters
+ * whose evaluations, squashed through a sigmoid, best predict those results.
+ * <p>
+ * Each line of the input holds a FEN and a result, either as {@code [1.0]},
+ * {@code [0.5]} and {@code [0.0]} or as {@code "1-0"}, {@code "1/2-1/2"} and
+ * {@code "0-1"}. Positions are kept as the evaluation terms they use (see
+ * {@link EvaluationParameters#extractFeatures}) in flat primitive arrays, a few dozen
+ * bytes per position, and the error and its gradient are summed over them with
+ * fork/join. The result is written as a parameter file the application loads at startup.
+ * <p>
+ * Usage: {@code TexelTuner <positions> <output> [iterations]}
+ */
+public final class TexelTuner {
+
+    private static final int DEFAULT_ITERATIONS = 500;
+    private static final int READ_BLOCK = 1 << 16;     // lines parsed in parallel at a time
+    private static final int SPLIT_THRESHOLD = 1 << 14; // positions summed by one fork/join task
+    private static final double LEARNING_RATE = 1.0;    // Adam step, in parameter units
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    // One board per worker thread for turning FENs into features
+    private static final ThreadLocal<ChessBoard> BOARDS = ThreadLocal.withInitial(ChessBoard::new);
+
+    // Position i uses terms featureIndex[featureStart[i] .. featureStart[i + 1]),
+    // each counted featureCount times for white minus black
+    private int positions;
+    private int[] featureStart = new int[1024];
+    private short[] featureIndex = new short[1024];
+    private byte[] featureCount = new byte[1024];
+    private float[] fixedScore = new float[1024];    // evaluation left over by the tunable terms
+    private byte[] result = new byte[1024];          // half points for white: 0, 1 or 2
+
+    private final double[] weights = new double[EvaluationParameters.COUNT];
+    private final double[] scales = new double[EvaluationParameters.COUNT];
+    private double k = 1.0;
+
+    private TexelTuner(int[] parameters) {
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = parameters[i];
+            scales[i] = EvaluationParameters.getScale(i);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TexelTuner <positions> <output> [iterations]");
+            System.exit(2);
+        }
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+
+        TexelTuner tuner = new TexelTuner(EvaluationParameters.get());
+        long start = System.nanoTime();
+        tuner.load(Path.of(args[0]));
+        System.out.printf("Loaded %d positions in %.1fs%n", tuner.positions, (System.nanoTime() - start) / 1e9);
+        if (tuner.positions == 0) return;
+
+        tuner.fitScalingConstant();
+        System.out.printf("K = %.4f, error = %.6f%n", tuner.k, tuner.error());
+        tuner.optimize(iterations);
+
+        Path output = Path.of(args[1]);
+        EvaluationParameters.save(output, tuner.getParameters());
+        System.out.println("Wrote " + output);
+    }
+
+    // Reading is sequential, turning a block of lines into features is parallel
+    private void load(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            List<String> lines = new ArrayList<>(READ_BLOCK);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == READ_BLOCK) {
+                    addAll(lines);
+                    lines.clear();
+                }
+            }
+            addAll(lines);
+        }
+    }
+
+    private void addAll(List<String> lines) {
+        int[][] encoded = new int[lines.size()][];
+        IntStream.range(0, lines.size()).parallel().forEach(i -> encoded[i] = encode(lines.get(i)));
+        for (int[] position : encoded) {
+            if (position != null) add(position);
+        }
+    }
+
+    // Encodes a line as {result, fixed score, feature count, indices..., counts...}, or null to skip it
+    private int[] encode(String line) {
+        int label = parseResult(line);
+        ChessBoard board = BOARDS.get();
+        if (label < 0) return null;
+        try {
+            Fen.parse(line, board);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (board.getKingSquare(ChessPiece.WHITE) < 0 || board.getKingSquare(ChessPiece.BLACK) < 0) return null;
+
+        int[] indices = new int[EvaluationParameters.MAX_FEATURES];
+        int[] counts = new int[EvaluationParameters.MAX_FEATURES];
+        int features = EvaluationParameters.extractFeatures(board, indices, counts);
+        // Positions in check are not quiet, so their static score says little about the result
+        if (features > 0 && indices[features - 1] == EvaluationParameters.CHECK_BONUS) return null;
+
+        double tunable = 0;
+        for (int i = 0; i < features; i++) {
+            tunable += weights[indices[i]] * scales[indices[i]] * counts[i];
+        }
+        int[] position = new int[3 + 2 * features];
+        position[0] = label;
+        position[1] = Float.floatToIntBits((float) (EvaluationParameters.evaluate(board) - tunable));
+        position[2] = features;
+        System.arraycopy(indices, 0, position, 3, features);
+        System.arraycopy(counts, 0, position, 3 + features, features);
+        return position;
+    }
+
+    private void add(int[] position) {
+        int features = position[2];
+        if (positions + 1 >= featureStart.length) {
+            int capacity = featureStart.length * 2;
+            featureStart = Arrays.copyOf(featureStart, capacity);
+            fixedScore = Arrays.copyOf(fixedScore, capacity);
+            result = Arrays.copyOf(result, capacity);
+        }
+        int start = featureStart[positions];
+        if (start + features > featureIndex.length) {
+            int capacity = Math.max(featureIndex.length * 2, start + features);
+            featureIndex = Arrays.copyOf(featureIndex, capacity);
+            featureCount = Arrays.copyOf(featureCount, capacity);
+        }
+        for (int i = 0; i < features; i++) {
+            featureIndex[start + i] = (short) position[3 + i];
+            featureCount[start + i] = (byte) position[3 + features + i];
+        }
+        result[positions] = (byte) position[0];
+        fixedScore[positions] = Float.intBitsToFloat(position[1]);
+        featureStart[++positions] = start + features;
+    }
+
+    // Half points for white, or -1 if the line has no recognizable result
+    private static int parseResult(String line) {
+        if (line.contains("1/2-1/2") || line.contains("[0.5]")) return 1;
+        if (line.contains("1-0") || line.contains("[1.0]")) return 2;
+        if (line.contains("0-1") || line.contains("[0.0]")) return 0;
+        return -1;
+    }
+
+    // Golden-section search for the sigmoid scale that fits the current parameters best
+    private void fitScalingConstant() {
+        double low = 0.1;
+        double high = 3.0;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        while (high - low > 1e-4) {
+            double a = high - ratio * (high - low);
+            double b = low + ratio * (high - low);
+            k = a;
+            double errorA = error();
+            k = b;
+            double errorB = error();
+            if (errorA < errorB) {
+                high = b;
+            } else {
+                low = a;
+            }
+        }
+        k = (low + high) / 2;
+    }
+
+    private double error() {
+        return new Sum(this, false).invoke()[0] / positions;
+    }
+
+    // Full-batch Adam, which copes with terms whose gradients differ by orders of magnitude
+    private void optimize(int iterations) {
+        double[] m = new double[weights.length];
+        double[] v = new double[weights.length];
+        for (int t = 1; t <= iterations; t++) {
+            double[] sums = new Sum(this, true).invoke();
+            for (int i = 0; i < weights.length; i++) {
+                if (!EvaluationParameters.isTunable(i)) continue;
+                double gradient = sums[i + 1] / positions;
+                m[i] = BETA1 * m[i] + (1 - BETA1) * gradient;
+                v[i] = BETA2 * v[i] + (1 - BETA2) * gradient * gradient;
+                double mHat = m[i] / (1 - Math.pow(BETA1, t));
+                double vHat = v[i] / (1 - Math.pow(BETA2, t));
+                weights[i] -= LEARNING_RATE * mHat / (Math.sqrt(vHat) + EPSILON);
+            }
+            if (t % 50 == 0 || t == iterations) {
+                System.out.printf("Iteration %d, error = %.6f%n", t, sums[0] / positions);
+            }
+        }
+    }
+
+    private int[] getParameters() {
+        int[] parameters = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            parameters[i] = (int) Math.round(weights[i]);
+        }
+        return parameters;
+    }
+
+    /**
+     * Sums the squared error over a range of positions, and optionally its gradient.
+     * Returns {error, d error / d weight 0, d error / d weight 1, ...}. Holds the
+     * tuner's arrays as of its creation, which stay put while a sum runs.
+     */
+    private static final class Sum extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] featureStart;
+        private final short[] featureIndex;
+        private final byte[] featureCount;
+        private final float[] fixedScore;
+        private final byte[] result;
+        private final double[] weights;
+        private final double[] scales;
+        private final double slope;
+        private final int from;
+        private final int to;
+        private final boolean gradient;
+
+        // Covers all positions of the tuner
+        Sum(TexelTuner tuner, boolean gradient) {
+            this.featureStart = tuner.featureStart;
+            this.featureIndex = tuner.featureIndex;
+            this.featureCount = tuner.featureCount;
+            this.fixedScore = tuner.fixedScore;
+            this.result = tuner.result;
+            this.weights = tuner.weights;
+            this.scales = tuner.scales;
+            this.slope = tuner.k * Math.log(10) / 400;
+            this.from = 0;
+            this.to = tuner.positions;
+            this.gradient = gradient;
+        }
+
+        // Covers part of its parent's range
+        private Sum(Sum parent, int from, int to) {
+            this.featureStart = parent.featureStart;
+            this.featureIndex = parent.featureIndex;
+            this.featureCount = parent.featureCount;
+            this.fixedScore = parent.fixedScore;
+            this.result = parent.result;
+            this.weights = parent.weights;
+            this.scales = parent.scales;
+            this.slope = parent.slope;
+            this.from = from;
+            this.to = to;
+            this.gradient = parent.gradient;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Sum left = new Sum(this, from, middle);
+                left.fork();
+                double[] sums = new Sum(this, middle, to).compute();
+                double[] leftSums = left.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += leftSums[i];
+                }
+                return sums;
+            }
+
+            double[] sums = new double[gradient ? weights.length + 1 : 1];
+            for (int p = from; p < to; p++) {
+                double score = fixedScore[p];
+                for (int f = featureStart[p]; f < featureStart[p + 1]; f++) {
+                    score += weights[featureIndex[f]] * scales[featureIndex[f]] * featureCount[f];
+                }
+                double predicted = 1 / (1 + Math.exp(-slope * score));
+                double difference = result[p] / 2.0 - predicted;
+                sums[0] += difference * difference;
+                if (gradient) {
+                    // d/dw (r - s)^2 = -2 (r - s) s (1 - s) * slope * scale * count
+                    double common = -2 * difference * predicted * (1 - predicted) * slope;
+                    for (int f = featureStart[p]; f < featureStart[p + 1]; f++) {
+                        sums[featureIndex[f] + 1] += common * scales[featureIndex[f]] * featureCount[f];
+                    }
+                }
+            }
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package ph.edu.dlsu.lbycpei.chessapp.tools;
+
+import ph.edu.dlsu.lbycpei.chessapp.model.EasyChessAI;
+import ph.edu.dlsu.lbycpei.chessapp.model.Game;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays engine A against engine B to find out whether a change made the engine
+ * stronger. Every opening of the suite is played twice with colors swapped, games run
+ * concurrently on one worker per core, and a sequential probability ratio test stops
+ * the match as soon as the result is clear.
+ * <p>
+ * Each worker owns one engine per side and reuses them for all its games, clearing
+ * their hash tables in between, so memory grows with the number of cores rather than
+ * the number of games.
+ * <p>
+ * Usage: {@code Tournament [key=value ...]}, with keys
+ * <ul>
+ *     <li>{@code games} (default 1000), {@code concurrency} (default: all cores),
+ *         {@code openings} (a file with one opening per line in coordinate notation),
+ *         {@code maxPlies} (default 400, after which a game is drawn)</li>
+ *     <li>{@code elo0}, {@code elo1}, {@code alpha}, {@code beta}: the SPRT hypotheses
+ *         and error rates (default 0, 5, 0.05, 0.05)</li>
+ *     <li>{@code a.} or {@code b.} followed by {@code depth}, {@code time} (milliseconds
+ *         per move), {@code hash} (entries), {@code nullMove}, {@code lmr} or
+ *         {@code checkExtensions}, to configure one side</li>
+ * </ul>
+ */
+public final class Tournament {
+
+    private static final String[] DEFAULT_OPENINGS = {
+            "e2e4 e7e5 g1f3 b8c6 f1b5",
+            "e2e4 c7c5 g1f3 d7d6 d2d4",
+            "e2e4 e7e6 d2d4 d7d5",
+            "e2e4 c7c6 d2d4 d7d5",
+            "d2d4 d7d5 c2c4 e7e6",
+            "d2d4 g8f6 c2c4 g7g6",
+            "d2d4 g8f6 c2c4 e7e6 g1f3",
+            "c2c4 e7e5 b1c3",
+            "g1f3 d7d5 g2g3",
+            "e2e4 e7e5 g1f3 g8f6"
+    };
+
+    /**
+     * One side's engine settings.
+     */
+    record EngineConfig(int depth, long timeMillis, long hashEntries, boolean nullMove, boolean lmr,
+                        boolean checkExtensions) {
+
+        static EngineConfig parse(Map<String, String> options, String prefix) {
+            return new EngineConfig(
+                    Integer.parseInt(options.getOrDefault(prefix + "depth", "64")),
+                    Long.parseLong(options.getOrDefault(prefix + "time", "100")),
+                    Long.parseLong(options.getOrDefault(prefix + "hash", String.valueOf(1 << 16))),
+                    Boolean.parseBoolean(options.getOrDefault(prefix + "nullMove", "true")),
+                    Boolean.parseBoolean(options.getOrDefault(prefix + "lmr", "true")),
+                    Boolean.parseBoolean(options.getOrDefault(prefix + "checkExtensions", "true")));
+        }
+
+        EasyChessAI createEngine() {
+            EasyChessAI engine = new EasyChessAI(hashEntries);
+            engine.setNullMovePruning(nullMove);
+            engine.setLateMoveReductions(lmr);
+            engine.setCheckExtensions(checkExtensions);
+            return engine;
+        }
+    }
+
+    private final EngineConfig configA;
+    private final EngineConfig configB;
+    private final List<String[]> openings;
+    private final int games;
+    private final int maxPlies;
+    private final Sprt sprt;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private volatile boolean stopped;
+
+    // Results from engine A's point of view
+    private int wins;
+    private int draws;
+    private int losses;
+    private int played;
+
+    private Tournament(Map<String, String> options, List<String[]> openings) {
+        this.configA = EngineConfig.parse(options, "a.");
+        this.configB = EngineConfig.parse(options, "b.");
+        this.openings = openings;
+        this.games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        this.maxPlies = Integer.parseInt(options.getOrDefault("maxPlies", "400"));
+        this.sprt = new Sprt(
+                Double.parseDouble(options.getOrDefault("elo0", "0")),
+                Double.parseDouble(options.getOrDefault("elo1", "5")),
+                Double.parseDouble(options.getOrDefault("alpha", "0.05")),
+                Double.parseDouble(options.getOrDefault("beta", "0.05")));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        List<String[]> openings = new ArrayList<>();
+        if (options.containsKey("openings")) {
+            for (String line : Files.readAllLines(Path.of(options.get("openings")))) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) openings.add(line.split("\\s+"));
+            }
+        } else {
+            for (String line : DEFAULT_OPENINGS) openings.add(line.split(" "));
+        }
+
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Tournament tournament = new Tournament(options, openings);
+        System.out.println("A: " + tournament.configA);
+        System.out.println("B: " + tournament.configB);
+        tournament.run(concurrency);
+    }
+
+    private void run(int concurrency) throws InterruptedException {
+        // Searches are CPU-bound, so more workers than cores would only time-slice them
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(this::playGames);
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        printStatus("Final");
+    }
+
+    private void playGames() {
+        EasyChessAI engineA = configA.createEngine();
+        EasyChessAI engineB = configB.createEngine();
+        int index;
+        while (!stopped && (index = nextGame.getAndIncrement()) < games) {
+            // Consecutive games share an opening, with engine A taking white in the even one
+            boolean aIsWhite = index % 2 == 0;
+            String[] opening = openings.get(index / 2 % openings.size());
+            engineA.getTranspositionTable().clear();
+            engineB.getTranspositionTable().clear();
+            Game.Result result = playGame(opening, aIsWhite ? engineA : engineB, aIsWhite ? configA : configB,
+                    aIsWhite ? engineB : engineA, aIsWhite ? configB : configA);
+            record(result, aIsWhite);
+        }
+    }
+
+    private Game.Result playGame(String[] opening, EasyChessAI white, EngineConfig whiteConfig,
+                                 EasyChessAI black, EngineConfig blackConfig) {
+        Game game = new Game();
+        for (String move : opening) {
+            if (!game.play(move)) {
+                throw new IllegalArgumentException("Illegal opening move " + move + " in " + String.join(" ", opening));
+            }
+        }
+        // Once the test has ended, games still running are abandoned
+        while (game.getResult() == Game.Result.ONGOING && !stopped) {
+            if (game.getMoves().size() >= maxPlies) {
+                game.adjudicate(Game.Result.DRAW, "move limit");
+                break;
+            }
+            boolean whiteToMove = game.getSideToMove() == ChessPiece.WHITE;
+            EasyChessAI engine = whiteToMove ? white : black;
+            EngineConfig config = whiteToMove ? whiteConfig : blackConfig;
+            EasyChessAI.Move move = engine.findBestMove(game.getBoard(), game.getSideToMove(), config.depth(),
+                    config.timeMillis());
+            game.play(move);
+        }
+        return game.getResult();
+    }
+
+    private synchronized void record(Game.Result result, boolean aIsWhite) {
+        if (stopped) return; // games still in flight after the test ended do not count
+        if (result == Game.Result.DRAW) {
+            draws++;
+        } else if ((result == Game.Result.WHITE_WINS) == aIsWhite) {
+            wins++;
+        } else {
+            losses++;
+        }
+        played++;
+
+        double llr = sprt.logLikelihoodRatio(wins, draws, losses);
+        if (llr >= sprt.upperBound() || llr <= sprt.lowerBound()) {
+            stopped = true;
+            printStatus(llr >= sprt.upperBound() ? "H1 accepted" : "H0 accepted");
+        } else if (played % 50 == 0) {
+            printStatus("Games " + played);
+        }
+    }
+
+    private synchronized void printStatus(String label) {
+        if (played == 0) return;
+        double score = (wins + draws / 2.0) / played;
+        double margin = 1.96 * standardError(wins, draws, losses);
+        System.out.printf("%s: +%d -%d =%d  Elo %.1f +/- %.1f  LLR %.2f [%.2f, %.2f]%n",
+                label, wins, losses, draws, elo(score),
+                (elo(Math.min(score + margin, 0.999)) - elo(Math.max(score - margin, 0.001))) / 2,
+                sprt.logLikelihoodRatio(wins, draws, losses), sprt.lowerBound(), sprt.upperBound());
+    }
+
+    static double elo(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    // Standard error of the mean score per game
+    static double standardError(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        double score = (wins + draws / 2.0) / games;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games;
+        return Math.sqrt(variance / games);
+    }
+
+    /**
+     * Sequential probability ratio test between "A is elo0 stronger" (H0) and "A is elo1
+     * stronger" (H1), using the normal approximation of the trinomial log-likelihood
+     * ratio. The match stops once the ratio leaves the bounds set by the error rates.
+     */
+    record Sprt(double elo0, double elo1, double alpha, double beta) {
+
+        double lowerBound() {
+            return Math.log(beta / (1 - alpha));
+        }
+
+        double upperBound() {
+            return Math.log((1 - beta) / alpha);
+        }
+
+        double logLikelihoodRatio(int wins, int draws, int losses) {
+            int games = wins + draws + losses;
+            if (games == 0) return 0;
+            double score = (wins + draws / 2.0) / games;
+            double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                    + losses * Math.pow(score, 2)) / games;
+            if (variance == 0) return 0; // every game ended the same way, nothing to measure yet
+            double score0 = expectedScore(elo0);
+            double score1 = expectedScore(elo1);
+            return (score1 - score0) * (2 * score - score0 - score1) * games / (2 * variance);
+        }
+
+        private static double expectedScore(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+    }
+}
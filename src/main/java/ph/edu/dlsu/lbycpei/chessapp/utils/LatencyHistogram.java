@@ -0,0 +1,95 @@
+package ph.edu.dlsu.lbycpei.chessapp.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in buckets that are exact below 32 nanoseconds and then split
+ * every power of two into 32 steps, so percentiles are accurate to about 3% over the
+ * whole range of a long while recording stays a single atomic increment. Any number
+ * of threads may record at once; readers see a consistent enough picture for
+ * reporting but not a snapshot.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the latency below which the given share of the recorded values fall,
+     * e.g. 99 for the 99th percentile.
+     *
+     * @param percentile between 0 and 100
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Describes the distribution in microseconds, e.g.
+     * {@code "n=1200 p50=41us p90=88us p99=310us p99.9=1250us max=4020us"}.
+     */
+    public String summary() {
+        return String.format("n=%d p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus", getCount(),
+                getPercentile(50) / 1000, getPercentile(90) / 1000, getPercentile(99) / 1000,
+                getPercentile(99.9) / 1000, getMax() / 1000);
+    }
+
+    // Values below 2^5 get a bucket each; above, the top six bits pick the bucket
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return shift >= 58 ? Long.MAX_VALUE : ((mantissa + 1) << shift) - 1;
+    }
+}
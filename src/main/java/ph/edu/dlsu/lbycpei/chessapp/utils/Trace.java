@@ -0,0 +1,56 @@
+package ph.edu.dlsu.lbycpei.chessapp.utils;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lightweight tracing for the rules and search code. Messages go into a fixed-size ring
+ * buffer instead of the console, so only the most recent ones are kept, and they are
+ * printed on demand with {@link #dump}.
+ * <p>
+ * Tracing is switched on at startup with {@code -Dchess.trace=true}. Callers guard
+ * each call with {@code if (Trace.ENABLED)}; since the flag is a static final constant,
+ * the JIT removes the guarded code entirely, including building the message, when
+ * tracing is off.
+ */
+public final class Trace {
+
+    public static final boolean ENABLED = Boolean.getBoolean("chess.trace");
+
+    private static final int CAPACITY = 4096; // power of two
+    private static final AtomicReferenceArray<String> BUFFER = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong NEXT = new AtomicLong();
+
+    /**
+     * Records a message, overwriting the oldest one once the buffer is full.
+     */
+    public static void record(String message) {
+        long sequence = NEXT.getAndIncrement();
+        BUFFER.set((int) sequence & (CAPACITY - 1), Thread.currentThread().getName() + ": " + message);
+    }
+
+    /**
+     * Prints the buffered messages, oldest first.
+     */
+    public static void dump(PrintStream out) {
+        long end = NEXT.get();
+        for (long sequence = Math.max(0, end - CAPACITY); sequence < end; sequence++) {
+            String message = BUFFER.get((int) sequence & (CAPACITY - 1));
+            if (message != null) {
+                out.println(message);
+            }
+        }
+    }
+
+    public static void clear() {
+        for (int i = 0; i < CAPACITY; i++) {
+            BUFFER.set(i, null);
+        }
+        NEXT.set(0);
+    }
+
+    private Trace() {
+        // Not meant for instantiation
+    }
+}
@@ -4,6 +4,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -17,6 +18,8 @@ public class AppView {
     private final  TextArea moveHistory;
     private final  Text statusText;
     private final Button replayButton;
+    private final ToggleButton analysisButton;
+    private final Text analysisText;
 
     public AppView() {
         this.board = new ChessBoardView();
@@ -31,6 +34,10 @@ public class AppView {
         statusText = new Text("White to move");
         statusText.getStyleClass().add("status-text");
 
+        // Live engine analysis, shown while the analysis button is on
+        analysisText = new Text();
+        analysisText.getStyleClass().add("analysis-text");
+
         // Setup bottom panel
         VBox bottomPanel = setupBottomPanel();
 
@@ -40,10 +47,11 @@ public class AppView {
 
         // Button panel
         replayButton = new Button("New Game");
+        analysisButton = new ToggleButton("Analysis");
         HBox buttonPanel = createButtonPanel();
 
         // Add to Bottom Panel
-        bottomPanel.getChildren().addAll(statusText, moveHistory, buttonPanel);
+        bottomPanel.getChildren().addAll(statusText, analysisText, moveHistory, buttonPanel);
         root.setBottom(bottomPanel);
     }
 
@@ -57,8 +65,9 @@ public class AppView {
     private HBox createButtonPanel() {
         HBox buttonPanel = new HBox(10);
         replayButton.getStyleClass().add("button");
+        analysisButton.getStyleClass().add("button");
         buttonPanel.setAlignment(Pos.CENTER);
-        buttonPanel.getChildren().add(replayButton);
+        buttonPanel.getChildren().addAll(replayButton, analysisButton);
         return buttonPanel;
     }
 
@@ -74,6 +83,14 @@ public class AppView {
         return replayButton;
     }
 
+    public ToggleButton getAnalysisButton() {
+        return analysisButton;
+    }
+
+    public Text getAnalysisText() {
+        return analysisText;
+    }
+
     public ChessBoardView getBoard() {
         return board;
     }
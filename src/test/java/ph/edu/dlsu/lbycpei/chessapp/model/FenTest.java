@@ -0,0 +1,125 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FenTest {
+
+    private static String roundTrip(String fen) {
+        ChessBoard board = new ChessBoard();
+        board.loadFen(fen);
+        return board.toFen();
+    }
+
+    @Test
+    void startPositionMatchesNewBoard() {
+        assertEquals(Fen.START_POSITION, new ChessBoard().toFen());
+        assertEquals(Fen.START_POSITION, roundTrip(Fen.START_POSITION));
+    }
+
+    @Test
+    void roundTripsPositionsAndClocks() {
+        String[] positions = {
+                "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4K2R b K - 12 57",
+        };
+        for (String fen : positions) {
+            assertEquals(fen, roundTrip(fen));
+        }
+    }
+
+    @Test
+    void roundTripsEachCastlingRight() {
+        for (String rights : new String[] {"KQkq", "K", "Q", "k", "q", "Kq", "Qk", "-"}) {
+            String fen = "r3k2r/8/8/8/8/8/8/R3K2R w " + rights + " - 0 1";
+            assertEquals(fen, roundTrip(fen));
+        }
+    }
+
+    @Test
+    void castlingRightsFollowTheKingAndRooks() {
+        ChessBoard board = new ChessBoard();
+        board.loadFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Game game = new Game(board);
+        assertNotNull(game.findMove("e1g1"));
+
+        assertTrue(game.play("h1h2"));
+        assertTrue(game.play("a8a7"));
+        assertEquals("4k2r/r7/8/8/8/8/7R/R3K3 w Qk - 2 2", board.toFen());
+        assertNull(game.findMove("e1g1"));
+        assertNotNull(game.findMove("e1c1"));
+    }
+
+    @Test
+    void doublePushSetsEnPassantSquare() {
+        Game game = new Game();
+        assertTrue(game.play("e2e4"));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.getBoard().toFen());
+        assertTrue(game.play("g8f6"));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", game.getBoard().toFen());
+    }
+
+    @Test
+    void loadedEnPassantSquareAllowsTheCapture() {
+        String fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+        ChessBoard board = new ChessBoard();
+        board.loadFen(fen);
+        assertEquals(fen, board.toFen());
+
+        Game game = new Game(board);
+        EasyChessAI.Move capture = game.findMove("e5f6");
+        assertNotNull(capture);
+        assertTrue(capture.isEnPassant);
+        assertNull(game.findMove("e5d6"));
+        game.play(capture);
+        assertNull(board.pieceAt(3, 5));
+    }
+
+    @Test
+    void clocksDefaultWhenMissing() {
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", roundTrip("4k3/8/8/8/8/8/8/4K3 w - -"));
+    }
+
+    @Test
+    void rejectsMalformedFen() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBXR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> new ChessBoard().loadFen(fen), fen);
+        }
+    }
+
+    @Test
+    void rejectsImpossiblePlacement() {
+        String[] invalid = {
+                "8/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4K1K1 w - - 0 1",
+                "P3k3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/p3K3 b - - 0 1",
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> new ChessBoard().loadFen(fen), fen);
+        }
+    }
+
+    @Test
+    void rejectedFenLeavesBoardUnchanged() {
+        ChessBoard board = new ChessBoard();
+        assertThrows(IllegalArgumentException.class, () -> board.loadFen("4k3/8/8/8/8/8/8/4K1K1 w - - 0 1"));
+        assertEquals(Fen.START_POSITION, board.toFen());
+    }
+}
@@ -0,0 +1,177 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameJournalTest {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 4;
+
+    @TempDir
+    Path directory;
+
+    // Distinct squares for every ply, so a record replayed out of place shows up
+    private static List<GameJournal.Entry> moves(int count, int seed) {
+        List<GameJournal.Entry> moves = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int from = (i + seed) % 64;
+            int to = (i * 7 + seed + 1) % 64;
+            moves.add(new GameJournal.Entry(from / 8, from % 8, to / 8, to % 8));
+        }
+        return moves;
+    }
+
+    private static void append(GameJournal journal, List<GameJournal.Entry> moves) {
+        for (GameJournal.Entry move : moves) {
+            journal.append(move.fromRow(), move.fromCol(), move.toRow(), move.toCol());
+        }
+    }
+
+    private Path write(List<GameJournal.Entry> moves) throws IOException {
+        Path file = directory.resolve("game.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            append(journal, moves);
+        }
+        return file;
+    }
+
+    private static List<GameJournal.Entry> reopen(Path file) throws IOException {
+        try (GameJournal journal = GameJournal.open(file)) {
+            return journal.getRestoredGame();
+        }
+    }
+
+    @Test
+    void newJournalIsEmpty() throws IOException {
+        Path file = directory.resolve("sub").resolve("game.journal");
+        assertEquals(List.of(), reopen(file));
+        assertEquals(HEADER_BYTES, Files.size(file));
+    }
+
+    @Test
+    void restoresRecordedMoves() throws IOException {
+        List<GameJournal.Entry> moves = moves(40, 0);
+        Path file = write(moves);
+        assertEquals(moves, reopen(file));
+    }
+
+    @Test
+    void keepsAppendingAfterReopening() throws IOException {
+        List<GameJournal.Entry> moves = moves(30, 3);
+        Path file = write(moves.subList(0, 10));
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(moves.subList(0, 10), journal.getRestoredGame());
+            append(journal, moves.subList(10, 30));
+        }
+        assertEquals(moves, reopen(file));
+    }
+
+    @Test
+    void plyNumbersWrapPast256() throws IOException {
+        List<GameJournal.Entry> moves = moves(600, 5);
+        Path file = write(moves);
+        assertEquals(moves, reopen(file));
+        assertEquals(HEADER_BYTES + 600L * RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void cutsOffTornTail() throws IOException {
+        List<GameJournal.Entry> moves = moves(20, 0);
+        Path file = write(moves);
+        byte[] data = Files.readAllBytes(file);
+
+        // Half of a further record, as a crash in the middle of a write leaves it
+        byte[] torn = Arrays.copyOf(data, data.length + 2);
+        torn[data.length] = 0x12;
+        torn[data.length + 1] = 0x34;
+        Files.write(file, torn);
+        assertEquals(moves, reopen(file));
+        assertEquals(data.length, Files.size(file));
+
+        // A whole record that is still zeroes, as a file extended but never written leaves it
+        Files.write(file, Arrays.copyOf(data, data.length + RECORD_BYTES));
+        assertEquals(moves, reopen(file));
+        assertEquals(data.length, Files.size(file));
+    }
+
+    @Test
+    void stopsAtCorruptedRecord() throws IOException {
+        List<GameJournal.Entry> moves = moves(20, 0);
+        Path file = write(moves);
+        byte[] data = Files.readAllBytes(file);
+        data[HEADER_BYTES + 12 * RECORD_BYTES + 3] ^= 0x01;
+        Files.write(file, data);
+
+        assertEquals(moves.subList(0, 12), reopen(file));
+        assertEquals(HEADER_BYTES + 12L * RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void stopsAtRecordOutOfSequence() throws IOException {
+        List<GameJournal.Entry> moves = moves(10, 0);
+        Path file = write(moves);
+        byte[] data = Files.readAllBytes(file);
+        // Repeat record 5 in slot 6: its own check byte is fine but its ply is not
+        System.arraycopy(data, HEADER_BYTES + 5 * RECORD_BYTES, data, HEADER_BYTES + 6 * RECORD_BYTES, RECORD_BYTES);
+        Files.write(file, data);
+
+        assertEquals(moves.subList(0, 6), reopen(file));
+    }
+
+    @Test
+    void newGameDiscardsEarlierMoves() throws IOException {
+        List<GameJournal.Entry> first = moves(15, 1);
+        List<GameJournal.Entry> second = moves(5, 9);
+        Path file = directory.resolve("game.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            append(journal, first);
+            journal.startNewGame();
+            append(journal, second);
+        }
+        assertEquals(second, reopen(file));
+        // The file was emptied down to the new-game record and the moves after it
+        assertEquals(HEADER_BYTES + 6L * RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void replaysOnlyTheGameAfterTheLastNewGameRecord() throws IOException {
+        List<GameJournal.Entry> first = moves(15, 1);
+        List<GameJournal.Entry> second = moves(5, 9);
+        byte[] old = Files.readAllBytes(write(first));
+
+        Path file = directory.resolve("game.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.startNewGame();
+            append(journal, second);
+        }
+        byte[] fresh = Files.readAllBytes(file);
+
+        // A crash between emptying the file and writing the new game can leave both behind
+        byte[] both = Arrays.copyOf(old, old.length + fresh.length - HEADER_BYTES);
+        System.arraycopy(fresh, HEADER_BYTES, both, old.length, fresh.length - HEADER_BYTES);
+        Files.write(file, both);
+        assertEquals(second, reopen(file));
+        assertEquals(both.length, Files.size(file));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("notes.txt");
+        Files.writeString(file, "not a journal at all");
+        IOException e = assertThrows(IOException.class, () -> GameJournal.open(file));
+        assertTrue(e.getMessage().contains("Not a game journal"));
+        assertEquals("not a journal at all", Files.readString(file));
+    }
+}
@@ -0,0 +1,93 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameTest {
+
+    private static Game game(String fen) {
+        ChessBoard board = new ChessBoard();
+        board.loadFen(fen);
+        return new Game(board);
+    }
+
+    private static void play(Game game, String... moves) {
+        for (String move : moves) {
+            assertTrue(game.play(move), move);
+        }
+    }
+
+    @Test
+    void threefoldRepetitionIsADraw() {
+        Game game = new Game();
+        play(game, "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+        assertEquals(Game.Result.ONGOING, game.getResult());
+
+        play(game, "f6g8");
+        assertEquals(Game.Result.DRAW, game.getResult());
+        assertEquals("threefold repetition", game.getTermination());
+        assertFalse(game.play("e2e4"));
+    }
+
+    @Test
+    void fiftyMoveRuleIsADraw() {
+        Game game = game("4k3/8/8/8/8/8/8/R3K3 w - - 98 60");
+        play(game, "a1a2");
+        assertEquals(Game.Result.ONGOING, game.getResult());
+
+        play(game, "e8d8");
+        assertEquals(Game.Result.DRAW, game.getResult());
+        assertEquals("fifty-move rule", game.getTermination());
+    }
+
+    @Test
+    void captureResetsTheFiftyMoveCount() {
+        Game game = game("4k3/8/8/8/8/8/3r4/4K3 w - - 99 60");
+        play(game, "e1d2");
+        assertEquals(0, game.getBoard().getHalfmoveClock());
+        assertEquals("insufficient material", game.getTermination());
+    }
+
+    @Test
+    void insufficientMaterialIsADraw() {
+        String[] drawn = {
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4KN2 w - - 0 1",
+                "4k3/8/8/8/8/8/8/4KB2 b - - 0 1",
+                "4kb2/8/8/8/8/8/8/4K3 w - - 0 1",
+        };
+        for (String fen : drawn) {
+            Game game = game(fen);
+            assertEquals(Game.Result.DRAW, game.getResult(), fen);
+            assertEquals("insufficient material", game.getTermination(), fen);
+        }
+    }
+
+    @Test
+    void enoughMaterialToMateIsNotADraw() {
+        String[] playable = {
+                "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/R3K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1",
+                "4kn2/8/8/8/8/8/8/4KB2 w - - 0 1",
+        };
+        for (String fen : playable) {
+            assertEquals(Game.Result.ONGOING, game(fen).getResult(), fen);
+        }
+    }
+
+    @Test
+    void checkmateAndStalemate() {
+        Game mate = new Game();
+        play(mate, "f2f3", "e7e5", "g2g4", "d8h4");
+        assertEquals(Game.Result.BLACK_WINS, mate.getResult());
+        assertEquals("checkmate", mate.getTermination());
+
+        Game stalemate = game("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertEquals(Game.Result.DRAW, stalemate.getResult());
+        assertEquals("stalemate", stalemate.getTermination());
+    }
+}
@@ -0,0 +1,101 @@
+package ph.edu.dlsu.lbycpei.chessapp.model;
+
+import org.junit.jupiter.api.Test;
+import ph.edu.dlsu.lbycpei.chessapp.model.pieces.ChessPiece;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MoveNotationTest {
+
+    private static ChessBoard board(String fen) {
+        ChessBoard board = new ChessBoard();
+        board.loadFen(fen);
+        return board;
+    }
+
+    private static String san(String fen, String move) {
+        ChessBoard board = board(fen);
+        EasyChessAI.Move found = new Game(board).findMove(move);
+        assertNotNull(found, move);
+        return MoveNotation.toSan(board, found);
+    }
+
+    private static String parse(String fen, String text) {
+        ChessBoard board = board(fen);
+        EasyChessAI.Move move = MoveNotation.parse(board, board.getSideToMove(), text);
+        return move == null ? null : move.toString();
+    }
+
+    @Test
+    void writesPlainMoves() {
+        assertEquals("e4", san(Fen.START_POSITION, "e2e4"));
+        assertEquals("Nf3", san(Fen.START_POSITION, "g1f3"));
+        assertEquals("exd5", san("4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1", "e4d5"));
+        assertEquals("O-O", san("4k3/8/8/8/8/8/8/4K2R w K - 0 1", "e1g1"));
+        assertEquals("O-O-O", san("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1", "e1c1"));
+        assertEquals("b8=Q+", san("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", "b7b8q"));
+    }
+
+    @Test
+    void marksCheckAndMate() {
+        assertEquals("Ra8#", san("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "a1a8"));
+        assertEquals("Rb8+", san("6k1/8/8/8/8/8/8/1R4K1 w - - 0 1", "b1b8"));
+    }
+
+    @Test
+    void disambiguatesByFileRankOrSquare() {
+        // Knights on b1 and f1 both reach d2
+        String knights = "4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1";
+        assertEquals("Nbd2", san(knights, "b1d2"));
+        assertEquals("Nfd2", san(knights, "f1d2"));
+
+        // Rooks on a1 and a5 both reach a3
+        String rooks = "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1";
+        assertEquals("R1a3", san(rooks, "a1a3"));
+        assertEquals("R5a3", san(rooks, "a5a3"));
+
+        // Queens on a1, c1 and a3 all reach b2, so a1 needs both file and rank
+        String queens = "4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1";
+        assertEquals("Qa1b2", san(queens, "a1b2"));
+        assertEquals("Qcb2", san(queens, "c1b2"));
+        assertEquals("Q3b2", san(queens, "a3b2"));
+
+        // A pinned knight cannot move, so the other one needs no qualifier
+        assertEquals("Nd2", san("4k3/8/8/8/8/8/8/1N1K1N1r w - - 0 1", "b1d2"));
+    }
+
+    @Test
+    void parsesSanAndCoordinateMoves() {
+        assertEquals("e2e4", parse(Fen.START_POSITION, "e4"));
+        assertEquals("g1f3", parse(Fen.START_POSITION, "Nf3"));
+        assertEquals("g1f3", parse(Fen.START_POSITION, "g1f3"));
+        assertEquals("e1g1", parse("4k3/8/8/8/8/8/8/4K2R w K - 0 1", "O-O"));
+        assertEquals("e1g1", parse("4k3/8/8/8/8/8/8/4K2R w K - 0 1", "0-0"));
+        assertEquals("b1d2", parse("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1", "Nbd2"));
+        assertEquals("a5a3", parse("4k3/8/8/R7/8/8/8/R3K3 w - - 0 1", "R5a3"));
+        assertEquals("b7b8q", parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", "b8=Q+"));
+    }
+
+    @Test
+    void parseIgnoresCheckAndAnnotationMarks() {
+        assertEquals("a1a8", parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "Ra8#!"));
+        assertEquals("e2e4", parse(Fen.START_POSITION, "e4!?"));
+    }
+
+    @Test
+    void parseRejectsIllegalAmbiguousAndUnplayableMoves() {
+        assertNull(parse(Fen.START_POSITION, "e5"));
+        assertNull(parse(Fen.START_POSITION, "Ke2"));
+        assertNull(parse("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1", "Nd2"));
+        // The engine only promotes to a queen
+        assertNull(parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", "b8=N"));
+    }
+
+    @Test
+    void parseUsesTheGivenColor() {
+        ChessBoard board = board(Fen.START_POSITION);
+        assertEquals("e7e5", MoveNotation.parse(board, ChessPiece.BLACK, "e5").toString());
+    }
+}